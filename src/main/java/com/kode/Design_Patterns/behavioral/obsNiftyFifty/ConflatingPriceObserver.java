@@ -0,0 +1,57 @@
+package com.kode.Design_Patterns.behavioral.obsNiftyFifty;
+
+import com.kode.Design_Patterns.behavioral.observer.LatestValueConflator;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//opt in latest value delivery for a lagging PriceObserver, register the wrapper instead of the user
+public class ConflatingPriceObserver implements PriceObserver, AutoCloseable {
+    private final LatestValueConflator conflator;
+    //only set when the wrapper made the executor, one the caller passes in is theirs to shut down
+    private final ExecutorService ownExecutor;
+
+    public ConflatingPriceObserver(PriceObserver observer) {
+        this(observer, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "conflating-" + observer.getClass().getSimpleName());
+            thread.setDaemon(true);
+            return thread;
+        }), true);
+    }
+
+    public ConflatingPriceObserver(PriceObserver observer, Executor executor) {
+        this(observer, executor, false);
+    }
+
+    private ConflatingPriceObserver(PriceObserver observer, Executor executor, boolean owned) {
+        this.conflator = new LatestValueConflator(observer::consumePrice, executor);
+        this.ownExecutor = owned ? (ExecutorService) executor : null;
+    }
+
+    @Override
+    public void consumePrice(Double price) {
+        conflator.offer(price);
+    }
+
+    @Override
+    public void consumePrice(double price, long timestamp) {
+        conflator.offer(price);
+    }
+
+    public long conflated() {
+        return conflator.conflated();
+    }
+
+    public long delivered() {
+        return conflator.delivered();
+    }
+
+    //stops the thread the wrapper made, a price still pending is delivered first
+    //remove the wrapper from the publisher before, an offer after close throws RejectedExecutionException
+    @Override
+    public void close() {
+        if (ownExecutor != null)
+            ownExecutor.shutdown();
+    }
+}
@@ -2,16 +2,61 @@ package com.kode.Design_Patterns.behavioral.obsNiftyFifty;
 
 import org.springframework.boot.autoconfigure.security.SecurityProperties;
 
+import java.time.Duration;
+
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
         NiftyFifty niftyFifty = new NiftyFifty(10.0);
 
         NiftyFiftyManager niftyFiftyManager = new NiftyFiftyManager();
-        Users users = new Users("kode");
-        niftyFiftyManager.addUser(users);
-        users = new Users("vivek");
-        niftyFiftyManager.addUser(users);
+        Users kode = new Users("kode");
+        niftyFiftyManager.addUser(kode);
+        Users vivek = new Users("vivek");
+        niftyFiftyManager.addUser(vivek);
 
         niftyFiftyManager.publishPriceChange(20.0);
+
+        //slow user only gets the latest price once it is free again
+        ConflatingPriceObserver slowUser = new ConflatingPriceObserver(new Users("slow") {
+            @Override
+            public void consumePrice(Double price) {
+                super.consumePrice(price);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        //users are removed by the instance that was added
+        niftyFiftyManager.removeUser(kode);
+        niftyFiftyManager.removeUser(vivek);
+        niftyFiftyManager.addUser(slowUser);
+        for (int i = 0; i < 100; i++)
+            niftyFiftyManager.publishPriceChange(21.0 + i);
+        Thread.sleep(200);
+        System.out.println("delivered " + slowUser.delivered() + ", conflated " + slowUser.conflated());
+        niftyFiftyManager.removeUser(slowUser);
+        slowUser.close();
+
+        //latency tracking: a user over 1ms three times in a row is moved off the publishing thread
+        niftyFiftyManager.startLatencyTracking(Duration.ofMillis(1), 3);
+        niftyFiftyManager.addUser((TickObserver) (price, timestamp) -> { });
+        niftyFiftyManager.addUser(new Users("lagging") {
+            @Override
+            public void consumePrice(Double price) {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        long start = System.nanoTime();
+        for (int i = 0; i < 1_000; i++)
+            niftyFiftyManager.publishPriceChange(200.0 + i, System.currentTimeMillis());
+        System.out.println("1000 prices published in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        niftyFiftyManager.latencyStats().values().forEach(System.out::println);
+        niftyFiftyManager.stopLatencyTracking();
     }
 }
@@ -8,5 +8,10 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 public class NiftyFifty {
-    private Double price;
+    private double price;
+    private long timestamp;
+
+    public NiftyFifty(double price) {
+        this.price = price;
+    }
 }
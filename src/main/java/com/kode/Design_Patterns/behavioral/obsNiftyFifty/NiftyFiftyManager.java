@@ -1,19 +1,78 @@
 package com.kode.Design_Patterns.behavioral.obsNiftyFifty;
 
-import java.util.ArrayList;
-import java.util.List;
+import com.kode.Design_Patterns.behavioral.observer.ConsumerLatencyMonitor;
+import com.kode.Design_Patterns.behavioral.observer.FlowPricePublisher;
+import com.kode.Design_Patterns.behavioral.observer.SubscriberRegistry;
+
+import java.time.Duration;
+import java.util.Map;
 
 public  class NiftyFiftyManager {
-    List<PriceObserver> consumersList = new ArrayList<>();
+    //users can subscribe / unsubscribe from any thread while a price is being published
+    SubscriberRegistry<TickObserver> consumersList = new SubscriberRegistry<>();
+    //null -> user calls are not timed
+    private volatile ConsumerLatencyMonitor<TickObserver> latencyMonitor;
 
-    void addUser(PriceObserver priceObserver){
+    void addUser(TickObserver priceObserver){
         consumersList.add(priceObserver);
     }
-    void removeUser(PriceObserver priceObserver){
+    void removeUser(TickObserver priceObserver){
         consumersList.remove(priceObserver);
+        ConsumerLatencyMonitor<TickObserver> latencyMonitor = this.latencyMonitor;
+        if (latencyMonitor != null)
+            latencyMonitor.remove(priceObserver);
     }
 
     void publishPriceChange(Double price){
-        consumersList.forEach(c->c.consumePrice(price));
+        long timestamp = System.currentTimeMillis();
+        ConsumerLatencyMonitor<TickObserver> latencyMonitor = this.latencyMonitor;
+        if (latencyMonitor != null) {
+            latencyMonitor.publish(consumersList, price, timestamp);
+            return;
+        }
+        consumersList.forEach(c -> {
+            if (c instanceof PriceObserver boxed)
+                boxed.consumePrice(price);
+            else
+                c.consumePrice(price, timestamp);
+        });
+    }
+
+    //primitive path, nothing is allocated for TickObservers
+    void publishPriceChange(double price, long timestamp){
+        ConsumerLatencyMonitor<TickObserver> latencyMonitor = this.latencyMonitor;
+        if (latencyMonitor != null) {
+            latencyMonitor.publish(consumersList, price, timestamp);
+            return;
+        }
+        consumersList.forEach(TickObserver::consumePrice, price, timestamp);
+    }
+
+    //times every user call, a user over budget strikeLimit times in a row moves to a slow lane
+    synchronized void startLatencyTracking(Duration budget, int strikeLimit){
+        if (latencyMonitor == null)
+            latencyMonitor = new ConsumerLatencyMonitor<>(TickObserver::consumePrice, budget, strikeLimit, 1024);
+    }
+
+    synchronized void stopLatencyTracking(){
+        if (latencyMonitor != null) {
+            latencyMonitor.close();
+            latencyMonitor = null;
+        }
+    }
+
+    Map<TickObserver, ConsumerLatencyMonitor.Stats> latencyStats(){
+        ConsumerLatencyMonitor<TickObserver> latencyMonitor = this.latencyMonitor;
+        return latencyMonitor == null ? Map.of() : latencyMonitor.stats();
+    }
+
+    //prices as a java.util.concurrent.Flow source, every Flow subscriber gets a buffer of bufferSize prices
+    //closing the returned publisher removes the bridge from the users
+    FlowPricePublisher asFlowPublisher(int bufferSize, FlowPricePublisher.OverflowPolicy policy){
+        FlowPricePublisher flowPublisher = new FlowPricePublisher(bufferSize, policy);
+        TickObserver bridge = flowPublisher::consume;
+        addUser(bridge);
+        flowPublisher.onClose(() -> removeUser(bridge));
+        return flowPublisher;
     }
 }
@@ -1,6 +1,12 @@
 package com.kode.Design_Patterns.behavioral.obsNiftyFifty;
 
-public interface PriceObserver {
+public interface PriceObserver extends TickObserver {
 
     void consumePrice(Double price);
+
+    //boxed observers still work on the primitive path, at the cost of one Double per tick
+    @Override
+    default void consumePrice(double price, long timestamp) {
+        consumePrice(Double.valueOf(price));
+    }
 }
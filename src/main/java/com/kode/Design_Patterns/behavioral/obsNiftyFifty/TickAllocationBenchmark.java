@@ -0,0 +1,19 @@
+package com.kode.Design_Patterns.behavioral.obsNiftyFifty;
+
+import static com.kode.Design_Patterns.behavioral.observer.TickAllocationBenchmark.bytesPerTick;
+
+//bytes allocated per NiftyFiftyManager tick on the primitive path
+//run: java ... TickAllocationBenchmark [subscribers]
+public class TickAllocationBenchmark {
+
+    public static void main(String[] args) {
+        int subscribers = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        NiftyFiftyManager manager = new NiftyFiftyManager();
+        double[] sum = new double[1];
+        for (int i = 0; i < subscribers; i++)
+            manager.addUser((TickObserver) (price, timestamp) -> sum[0] += price);
+        System.out.printf("primitive TickObserver x%d: %.2f bytes/tick%n", subscribers,
+                bytesPerTick(tick -> manager.publishPriceChange(tick, tick)));
+        System.out.println(sum[0]);
+    }
+}
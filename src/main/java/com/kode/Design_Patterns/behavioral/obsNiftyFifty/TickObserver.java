@@ -0,0 +1,7 @@
+package com.kode.Design_Patterns.behavioral.obsNiftyFifty;
+
+//primitive observer: price and timestamp (epoch millis) arrive unboxed
+public interface TickObserver {
+
+    void consumePrice(double price, long timestamp);
+}
@@ -0,0 +1,169 @@
+package com.kode.Design_Patterns.behavioral.observer;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//collects notifications and hands them to a BulkSender in one call
+//a batch goes out when it holds maxBatch prices or when window has passed, whichever comes first
+//  bitCoinManager.addConsumer(EmailConsumer.batching(sender, 500, Duration.ofSeconds(1)))
+//two buffers: the full one is swapped out under the monitor and sent outside it, so publishers keep
+//filling the other one while the gateway call runs
+//a batch the gateway rejects is kept and sent again, before anything newer, on the next flush
+//while it is held the other buffer can still fill, prices arriving after that are dropped (counted in dropped())
+public class BatchingConsumer implements Consumer, AutoCloseable {
+    private final String channel;
+    private final BulkSender sender;
+    private final int maxBatch;
+    private final ScheduledExecutorService timer;
+
+    //guarded by this
+    private Batch filling;
+    private Batch spare;
+
+    //guarded by sendLock, one gateway call at a time keeps batches in order
+    private final Object sendLock = new Object();
+    private Batch unsent;
+    private RuntimeException lastFailure;
+
+    private final AtomicLong failedSends = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public BatchingConsumer(String channel, BulkSender sender, int maxBatch, Duration window) {
+        if (maxBatch <= 0)
+            throw new IllegalArgumentException("batch size must be positive: " + maxBatch);
+        this.channel = channel;
+        this.sender = sender;
+        this.maxBatch = maxBatch;
+        this.filling = new Batch(maxBatch);
+        this.spare = new Batch(maxBatch);
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "batching-" + channel);
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleAtFixedRate(this::timedFlush, window.toNanos(), window.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void consume(Double price) {
+        consume(price, System.currentTimeMillis());
+    }
+
+    //the publishing thread sends the batch it completes, the gateway call is paid once per maxBatch prices
+    @Override
+    public void consume(double price, long timestamp) {
+        int count = offer(price, timestamp);
+        if (count < 0) {
+            //the previous batch is still out, wait for it and try once more
+            flush();
+            count = offer(price, timestamp);
+            if (count < 0) {
+                dropped.incrementAndGet();
+                return;
+            }
+        }
+        if (count == maxBatch)
+            flush();
+    }
+
+    //false when a batch is held back because the gateway failed, it is retried on the next flush
+    public boolean flush() {
+        synchronized (sendLock) {
+            if (unsent != null) {
+                if (!send(unsent))
+                    return false;
+                release(unsent);
+                unsent = null;
+            }
+            Batch batch = takeFilling();
+            if (batch == null)
+                return true;
+            if (!send(batch)) {
+                unsent = batch;
+                return false;
+            }
+            release(batch);
+            return true;
+        }
+    }
+
+    //gateway calls that threw
+    public long failedSends() {
+        return failedSends.get();
+    }
+
+    //prices discarded because both buffers were full
+    public long dropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public void close() {
+        timer.shutdown();
+        if (!flush()) {
+            synchronized (sendLock) {
+                throw new IllegalStateException(channel + ": " + unsent.count + " notifications could not be sent", lastFailure);
+            }
+        }
+    }
+
+    //an exception escaping a scheduleAtFixedRate task cancels every later run
+    private void timedFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            synchronized (sendLock) {
+                lastFailure = e;
+            }
+        }
+    }
+
+    //count after adding, -1 when the buffer is full
+    private synchronized int offer(double price, long timestamp) {
+        Batch batch = filling;
+        if (batch.count == maxBatch)
+            return -1;
+        batch.prices[batch.count] = price;
+        batch.timestamps[batch.count] = timestamp;
+        return ++batch.count;
+    }
+
+    private synchronized Batch takeFilling() {
+        if (filling.count == 0 || spare == null)
+            return null;
+        Batch full = filling;
+        filling = spare;
+        spare = null;
+        return full;
+    }
+
+    private synchronized void release(Batch batch) {
+        batch.count = 0;
+        spare = batch;
+    }
+
+    private boolean send(Batch batch) {
+        try {
+            sender.sendBulk(channel, batch.prices, batch.timestamps, batch.count);
+            return true;
+        } catch (RuntimeException e) {
+            failedSends.incrementAndGet();
+            lastFailure = e;
+            return false;
+        }
+    }
+
+    private static final class Batch {
+        final double[] prices;
+        final long[] timestamps;
+        int count;
+
+        Batch(int capacity) {
+            this.prices = new double[capacity];
+            this.timestamps = new long[capacity];
+        }
+    }
+}
@@ -8,5 +8,10 @@ import lombok.Getter;
 @Getter
 @AllArgsConstructor
 public class BitCoin {
-    private Double price;
+    private double price;
+    private long timestamp;
+
+    public BitCoin(double price) {
+        this.price = price;
+    }
 }
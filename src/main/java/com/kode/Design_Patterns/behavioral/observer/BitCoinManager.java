@@ -10,8 +10,13 @@ import lombok.NoArgsConstructor;
 public class BitCoinManager extends Publisher{
     private BitCoin bitCoin;
 
-    public void setPrice(Double price){
+    public void setPrice(double price){
+        setPrice(price, System.currentTimeMillis());
+    }
+
+    public void setPrice(double price, long timestamp){
         bitCoin.setPrice(price);
-        publish(price);
+        bitCoin.setTimestamp(timestamp);
+        publish(price, timestamp);
     }
 }
@@ -0,0 +1,8 @@
+package com.kode.Design_Patterns.behavioral.observer;
+
+//gateway that takes many notifications in one call
+//prices / timestamps are reused by the caller after the call returns, copy them if they are kept
+public interface BulkSender {
+
+    void sendBulk(String channel, double[] prices, long[] timestamps, int count);
+}
@@ -0,0 +1,57 @@
+package com.kode.Design_Patterns.behavioral.observer;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//opt in latest value delivery: wrap a slow consumer and register the wrapper
+//  bitCoinManager.addConsumer(new ConflatingConsumer(new EmailConsumer()))
+//the wrapped consumer runs on its own thread and only sees the latest price once it is free again
+public class ConflatingConsumer implements Consumer, AutoCloseable {
+    private final LatestValueConflator conflator;
+    //only set when the wrapper made the executor, one the caller passes in is theirs to shut down
+    private final ExecutorService ownExecutor;
+
+    public ConflatingConsumer(Consumer consumer) {
+        this(consumer, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "conflating-" + consumer.getClass().getSimpleName());
+            thread.setDaemon(true);
+            return thread;
+        }), true);
+    }
+
+    public ConflatingConsumer(Consumer consumer, Executor executor) {
+        this(consumer, executor, false);
+    }
+
+    private ConflatingConsumer(Consumer consumer, Executor executor, boolean owned) {
+        this.conflator = new LatestValueConflator(consumer::consume, executor);
+        this.ownExecutor = owned ? (ExecutorService) executor : null;
+    }
+
+    @Override
+    public void consume(Double price) {
+        conflator.offer(price);
+    }
+
+    @Override
+    public void consume(double price, long timestamp) {
+        conflator.offer(price);
+    }
+
+    public long conflated() {
+        return conflator.conflated();
+    }
+
+    public long delivered() {
+        return conflator.delivered();
+    }
+
+    //stops the thread the wrapper made, a price still pending is delivered first
+    //remove the wrapper from the publisher before, an offer after close throws RejectedExecutionException
+    @Override
+    public void close() {
+        if (ownExecutor != null)
+            ownExecutor.shutdown();
+    }
+}
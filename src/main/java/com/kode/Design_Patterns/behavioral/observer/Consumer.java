@@ -1,6 +1,12 @@
 package com.kode.Design_Patterns.behavioral.observer;
 //step3: creating consumer/observer interface
-public interface Consumer {
+public interface Consumer extends TickConsumer {
 
     void consume(Double price);
+
+    //boxed consumers still work on the primitive path, at the cost of one Double per tick
+    @Override
+    default void consume(double price, long timestamp) {
+        consume(Double.valueOf(price));
+    }
 }
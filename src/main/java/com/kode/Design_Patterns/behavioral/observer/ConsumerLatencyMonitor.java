@@ -0,0 +1,194 @@
+package com.kode.Design_Patterns.behavioral.observer;
+
+import java.time.Duration;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+//times consumer calls of a synchronous publish and keeps a LatencyHistogram per consumer
+//a consumer whose call goes over the budget strikeLimit times in a row is quarantined: from then on it reads
+//prices from a slow lane (RingBufferDispatcher, own thread, lapped instead of queueing) and the publishing
+//thread no longer waits for it, its calls on the slow lane are still timed into the same histogram
+//  monitor.publish(registry, price, timestamp) -> replaces registry.forEach(...) in the publisher
+//kept cheap for large audiences:
+//  only every sampleEvery-th call is timed (two nanoTime calls), once a sample is over budget every call is
+//  timed until the consumer is back under it or quarantined, only the regular samples go into the histogram
+//  histograms use 3 significant bits and allocate their rows lazily, ~650 bytes per consumer instead of ~7.7 KB
+//consumers are tracked by instance like in the SubscriberRegistry: equal consumers get their own histogram and a
+//consumer whose hashCode changes is still found, the index is striped by identity hash and every stripe is a
+//copy on write IdentityHashMap, so the lookup on every call takes no lock
+public class ConsumerLatencyMonitor<T> implements AutoCloseable {
+    private final SubscriberRegistry.PriceVisitor<T> delivery;
+    private final long budgetNanos;
+    private final int strikeLimit;
+    private final int sampleMask;
+    //stripes are replaced, never changed, under this
+    private final AtomicReferenceArray<Map<T, Tracked>> tracked = new AtomicReferenceArray<>(STRIPES);
+    private final RingBufferDispatcher slowLane;
+    private final SubscriberRegistry.PriceVisitor<T> timedDelivery = this::deliver;
+    private volatile int quarantinedCount;
+
+    public static final int DEFAULT_SAMPLE_EVERY = 8;
+    private static final int HISTOGRAM_BITS = 3;
+    private static final int STRIPES = 64;
+
+    //delivery -> how a consumer is called, e.g. TickConsumer::consume
+    public ConsumerLatencyMonitor(SubscriberRegistry.PriceVisitor<T> delivery, Duration budget, int strikeLimit, int slowLaneRingSize) {
+        this(delivery, budget, strikeLimit, slowLaneRingSize, DEFAULT_SAMPLE_EVERY);
+    }
+
+    //sampleEvery -> power of two, 1 times every call
+    public ConsumerLatencyMonitor(SubscriberRegistry.PriceVisitor<T> delivery, Duration budget, int strikeLimit, int slowLaneRingSize,
+                                  int sampleEvery) {
+        if (strikeLimit <= 0)
+            throw new IllegalArgumentException("strike limit must be positive: " + strikeLimit);
+        if (sampleEvery <= 0 || Integer.bitCount(sampleEvery) != 1)
+            throw new IllegalArgumentException("sample rate must be a power of two: " + sampleEvery);
+        this.delivery = delivery;
+        this.budgetNanos = budget.toNanos();
+        this.strikeLimit = strikeLimit;
+        this.sampleMask = sampleEvery - 1;
+        this.slowLane = new RingBufferDispatcher(slowLaneRingSize);
+        for (int i = 0; i < STRIPES; i++)
+            tracked.set(i, new IdentityHashMap<>());
+    }
+
+    public void publish(SubscriberRegistry<T> registry, double price, long timestamp) {
+        if (quarantinedCount > 0)
+            slowLane.publish(price, timestamp);
+        registry.forEach(timedDelivery, price, timestamp);
+    }
+
+    //calls and strikes are counted without locking, with several publishing threads a sample or strike may be lost
+    private void deliver(T consumer, double price, long timestamp) {
+        Tracked entry = tracked(consumer);
+        if (entry == null)
+            entry = track(consumer);
+        if (entry.lane != null)
+            return;
+        boolean sampled = (entry.calls++ & sampleMask) == 0;
+        if (!sampled && entry.strikes == 0) {
+            delivery.visit(consumer, price, timestamp);
+            return;
+        }
+        long start = System.nanoTime();
+        delivery.visit(consumer, price, timestamp);
+        long took = System.nanoTime() - start;
+        if (sampled)
+            entry.histogram.record(took);
+        if (took <= budgetNanos)
+            entry.strikes = 0;
+        else if (++entry.strikes >= strikeLimit)
+            quarantine(entry);
+    }
+
+    private Tracked tracked(T consumer) {
+        return tracked.get(stripeOf(consumer)).get(consumer);
+    }
+
+    private synchronized Tracked track(T consumer) {
+        int stripe = stripeOf(consumer);
+        Tracked entry = tracked.get(stripe).get(consumer);
+        if (entry == null) {
+            entry = new Tracked(consumer);
+            Map<T, Tracked> grown = new IdentityHashMap<>(tracked.get(stripe));
+            grown.put(consumer, entry);
+            tracked.set(stripe, grown);
+        }
+        return entry;
+    }
+
+    private synchronized void untrack(T consumer) {
+        int stripe = stripeOf(consumer);
+        if (!tracked.get(stripe).containsKey(consumer))
+            return;
+        Map<T, Tracked> shrunk = new IdentityHashMap<>(tracked.get(stripe));
+        shrunk.remove(consumer);
+        tracked.set(stripe, shrunk);
+    }
+
+    private static int stripeOf(Object consumer) {
+        int h = System.identityHashCode(consumer);
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private synchronized void quarantine(Tracked entry) {
+        if (entry.lane != null || tracked(entry.consumer) != entry)
+            return;
+        TickConsumer lane = (price, timestamp) -> {
+            if ((entry.calls++ & sampleMask) != 0) {
+                delivery.visit(entry.consumer, price, timestamp);
+                return;
+            }
+            long start = System.nanoTime();
+            delivery.visit(entry.consumer, price, timestamp);
+            entry.histogram.record(System.nanoTime() - start);
+        };
+        slowLane.addConsumer(lane);
+        entry.lane = lane;
+        quarantinedCount++;
+    }
+
+    //moves a quarantined consumer back to the publishing thread
+    public synchronized void release(T consumer) {
+        Tracked entry = tracked(consumer);
+        if (entry == null || entry.lane == null)
+            return;
+        slowLane.removeConsumer(entry.lane);
+        entry.lane = null;
+        entry.strikes = 0;
+        quarantinedCount--;
+    }
+
+    //call when the consumer leaves the registry
+    public synchronized void remove(T consumer) {
+        release(consumer);
+        untrack(consumer);
+    }
+
+    public boolean isQuarantined(T consumer) {
+        Tracked entry = tracked(consumer);
+        return entry != null && entry.lane != null;
+    }
+
+    public Stats stats(T consumer) {
+        Tracked entry = tracked(consumer);
+        return entry == null ? null : entry.stats();
+    }
+
+    //keyed by instance, like the monitor itself
+    public Map<T, Stats> stats() {
+        Map<T, Stats> snapshot = new IdentityHashMap<>();
+        for (int i = 0; i < STRIPES; i++)
+            tracked.get(i).forEach((consumer, entry) -> snapshot.put(consumer, entry.stats()));
+        return snapshot;
+    }
+
+    @Override
+    public void close() {
+        slowLane.shutdown();
+    }
+
+    private final class Tracked {
+        final T consumer;
+        final LatencyHistogram histogram = new LatencyHistogram(HISTOGRAM_BITS);
+        int calls;
+        int strikes;
+        volatile TickConsumer lane;
+
+        Tracked(T consumer) {
+            this.consumer = consumer;
+        }
+
+        Stats stats() {
+            TickConsumer lane = this.lane;
+            long[] percentiles = histogram.valuesAtPercentiles(50, 99, 99.9);
+            return new Stats(histogram.count(), percentiles[0], percentiles[1], percentiles[2], histogram.max(), lane != null,
+                    lane == null ? 0 : slowLane.missed(lane));
+        }
+    }
+
+    //latencies in nanoseconds, count -> timed samples, missed -> prices the consumer was lapped on in the slow lane
+    public record Stats(long count, long p50, long p99, long p999, long max, boolean quarantined, long missed) {
+    }
+}
@@ -0,0 +1,193 @@
+package com.kode.Design_Patterns.behavioral.observer;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+//bridge from a price publisher to java.util.concurrent.Flow with demand based backpressure
+//register it as a consumer (Publisher.asFlowPublisher does that) and Flow subscribers receive the prices
+//every subscription has its own bounded buffer: prices wait there until the subscriber request()s them,
+//what happens when it is full is the overflow policy
+//  DROP_OLDEST -> the oldest buffered price makes room (counted in dropped())
+//  DROP_NEWEST -> the incoming price is discarded (counted in dropped())
+//  FAIL        -> the subscription is cancelled and the subscriber gets onError
+//onNext runs on the executor, one at a time per subscription, the publishing thread never waits for a subscriber
+public class FlowPricePublisher implements Flow.Publisher<Double>, TickConsumer, AutoCloseable {
+    public enum OverflowPolicy { DROP_OLDEST, DROP_NEWEST, FAIL }
+
+    private final int bufferSize;
+    private final OverflowPolicy policy;
+    private final Executor executor;
+    private final SubscriberRegistry<PriceSubscription> subscriptions = new SubscriberRegistry<>(16);
+    private volatile boolean closed;
+    private volatile Runnable onClose = () -> { };
+
+    public FlowPricePublisher(int bufferSize, OverflowPolicy policy) {
+        this(bufferSize, policy, ForkJoinPool.commonPool());
+    }
+
+    public FlowPricePublisher(int bufferSize, OverflowPolicy policy, Executor executor) {
+        if (bufferSize <= 0)
+            throw new IllegalArgumentException("buffer size must be positive: " + bufferSize);
+        this.bufferSize = bufferSize;
+        this.policy = policy;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Double> subscriber) {
+        PriceSubscription subscription = new PriceSubscription(subscriber);
+        subscriptions.add(subscription);
+        subscriber.onSubscribe(subscription);
+        if (closed)
+            subscription.complete();
+    }
+
+    @Override
+    public void consume(double price, long timestamp) {
+        if (!closed)
+            subscriptions.forEach(PriceSubscription::offer, price, timestamp);
+    }
+
+    //buffered prices are still delivered, then every subscriber gets onComplete
+    @Override
+    public synchronized void close() {
+        if (closed)
+            return;
+        closed = true;
+        subscriptions.forEach(PriceSubscription::complete);
+        onClose.run();
+    }
+
+    //run once by close(), asFlowPublisher uses it to unregister the bridge from its source
+    public void onClose(Runnable action) {
+        this.onClose = action;
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    public final class PriceSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super Double> subscriber;
+        private final double[] buffer = new double[bufferSize];
+        private int head;
+        private int count;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicLong dropped = new AtomicLong();
+        private final Runnable drain = this::drain;
+        private volatile boolean cancelled;
+        private volatile boolean completing;
+        private volatile Throwable error;
+
+        PriceSubscription(Flow.Subscriber<? super Double> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("non-positive request " + n));
+                return;
+            }
+            demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        //prices lost to the overflow policy
+        public long dropped() {
+            return dropped.get();
+        }
+
+        void offer(double price, long timestamp) {
+            if (cancelled)
+                return;
+            synchronized (this) {
+                if (count == buffer.length) {
+                    switch (policy) {
+                        case DROP_OLDEST -> {
+                            head = (head + 1) % buffer.length;
+                            count--;
+                            dropped.incrementAndGet();
+                        }
+                        case DROP_NEWEST -> {
+                            dropped.incrementAndGet();
+                            return;
+                        }
+                        case FAIL -> {
+                            fail(new IllegalStateException("subscriber buffer of " + buffer.length + " prices overflowed"));
+                            return;
+                        }
+                    }
+                }
+                buffer[(head + count) % buffer.length] = price;
+                count++;
+            }
+            if (demand.get() > 0)
+                schedule();
+        }
+
+        void complete() {
+            completing = true;
+            schedule();
+        }
+
+        private void fail(Throwable throwable) {
+            error = throwable;
+            cancel();
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0)
+                executor.execute(drain);
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                while (!cancelled && demand.get() > 0) {
+                    double price;
+                    synchronized (this) {
+                        if (count == 0)
+                            break;
+                        price = buffer[head];
+                        head = (head + 1) % buffer.length;
+                        count--;
+                    }
+                    demand.decrementAndGet();
+                    try {
+                        subscriber.onNext(price);
+                    } catch (Throwable t) {
+                        fail(t);
+                    }
+                }
+                if (error != null) {
+                    Throwable throwable = error;
+                    error = null;
+                    subscriber.onError(throwable);
+                    return;
+                }
+                if (completing && !cancelled && isEmpty()) {
+                    cancel();
+                    subscriber.onComplete();
+                    return;
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private synchronized boolean isEmpty() {
+            return count == 0;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.kode.Design_Patterns.behavioral.observer;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+//log linear histogram of nanosecond latencies (HdrHistogram layout, subBucketBits significant bits)
+//  values below 2^subBucketBits -> one bucket each
+//  above -> every power of two is split into 2^(subBucketBits - 1) buckets
+//     5 bits (default) -> a bucket is at most ~6% wide
+//     3 bits           -> at most 25% wide, for one histogram per subscriber
+//buckets are allocated one power of two (row) at a time on first use, latencies cluster in a few rows,
+//so a 3 bit histogram usually holds ~5 rows of 4 counters instead of all 156
+//values above 2^40 ns (~18 min) land in the top bucket, max() is still exact
+//record() is a couple of shifts and one atomic increment, percentiles walk the buckets
+public class LatencyHistogram {
+    private static final long HIGHEST_TRACKABLE = (1L << 40) - 1;
+
+    private final int subBucketBits;
+    private final int subBuckets;
+    private final int half;
+    private final int buckets;
+    private final AtomicReferenceArray<AtomicLongArray> rows;
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram() {
+        this(5);
+    }
+
+    public LatencyHistogram(int subBucketBits) {
+        if (subBucketBits < 2 || subBucketBits > 10)
+            throw new IllegalArgumentException("sub bucket bits must be in [2, 10]: " + subBucketBits);
+        this.subBucketBits = subBucketBits;
+        this.subBuckets = 1 << subBucketBits;
+        this.half = subBuckets >> 1;
+        this.buckets = indexOf(HIGHEST_TRACKABLE) + 1;
+        this.rows = new AtomicReferenceArray<>((buckets + half - 1) / half);
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+        int index = indexOf(Math.min(nanos, HIGHEST_TRACKABLE));
+        row(index / half).incrementAndGet(index % half);
+        count.incrementAndGet();
+        if (nanos > max.get())
+            max.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    //highest value of the bucket holding the percentile (0..100), 0 when nothing was recorded
+    public long valueAtPercentile(double percentile) {
+        return valuesAtPercentiles(percentile)[0];
+    }
+
+    //all percentiles come from one copy of the buckets, so they stay ordered while others keep recording
+    public long[] valuesAtPercentiles(double... percentiles) {
+        long[] snapshot = new long[buckets];
+        long total = 0;
+        for (int r = 0; r < rows.length(); r++) {
+            AtomicLongArray row = rows.get(r);
+            if (row == null)
+                continue;
+            for (int i = 0; i < half && r * half + i < buckets; i++)
+                total += snapshot[r * half + i] = row.get(i);
+        }
+        long highest = max.get();
+        long[] values = new long[percentiles.length];
+        if (total == 0)
+            return values;
+        for (int p = 0; p < percentiles.length; p++) {
+            long rank = Math.max(1, (long) Math.ceil(total * Math.min(percentiles[p], 100.0) / 100.0));
+            long seen = 0;
+            int i = 0;
+            while (i < buckets - 1 && (seen += snapshot[i]) < rank)
+                i++;
+            values[p] = Math.min(highestValueOf(i), highest);
+        }
+        return values;
+    }
+
+    private AtomicLongArray row(int r) {
+        AtomicLongArray row = rows.get(r);
+        if (row == null) {
+            AtomicLongArray created = new AtomicLongArray(half);
+            row = rows.compareAndExchange(r, null, created);
+            if (row == null)
+                row = created;
+        }
+        return row;
+    }
+
+    int indexOf(long value) {
+        if (value < subBuckets)
+            return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (subBucketBits - 1);
+        return shift * half + (int) (value >>> shift);
+    }
+
+    long highestValueOf(int index) {
+        if (index < subBuckets)
+            return index;
+        int shift = index / half - 1;
+        long mantissa = index - (long) shift * half;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
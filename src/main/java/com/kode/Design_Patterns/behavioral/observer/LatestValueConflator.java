@@ -0,0 +1,67 @@
+package com.kode.Design_Patterns.behavioral.observer;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleConsumer;
+
+//keeps only the latest price for a slow target
+//offer() drops the price in a single pending slot and returns, a drain task on the executor hands the slot to
+//the target, while the target is busy newer prices overwrite the slot instead of queueing behind it
+//so a lagging target always gets the most recent price next and never builds a backlog
+public class LatestValueConflator {
+    private final DoubleConsumer target;
+    private final Executor executor;
+    private final AtomicLong conflated = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final Runnable drain = this::drain;
+
+    //guarded by this, every double is a valid price so the slot has its own pending flag
+    private double latest;
+    private boolean pending;
+    private boolean scheduled;
+
+    public LatestValueConflator(DoubleConsumer target, Executor executor) {
+        this.target = target;
+        this.executor = executor;
+    }
+
+    public void offer(double price) {
+        boolean schedule;
+        synchronized (this) {
+            if (pending)
+                conflated.incrementAndGet();
+            latest = price;
+            pending = true;
+            schedule = !scheduled;
+            scheduled = true;
+        }
+        if (schedule)
+            executor.execute(drain);
+    }
+
+    //prices overwritten before the target got to them
+    public long conflated() {
+        return conflated.get();
+    }
+
+    public long delivered() {
+        return delivered.get();
+    }
+
+    private void drain() {
+        while (true) {
+            double price;
+            synchronized (this) {
+                //cleared under the same lock offer() checks it, an offer either sees it set or schedules a new drain
+                if (!pending) {
+                    scheduled = false;
+                    return;
+                }
+                price = latest;
+                pending = false;
+            }
+            delivered.incrementAndGet();
+            target.accept(price);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.kode.Design_Patterns.behavioral.observer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//stand in for the email / sms gateway: one console line per bulk call
+public class LocalBulkSender implements BulkSender {
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong notifications = new AtomicLong();
+
+    @Override
+    public void sendBulk(String channel, double[] prices, long[] timestamps, int count) {
+        calls.incrementAndGet();
+        notifications.addAndGet(count);
+        System.out.println("sending " + count + " " + channel + " notifications in one call, last price: " + prices[count - 1]);
+    }
+
+    public long calls() {
+        return calls.get();
+    }
+
+    public long notifications() {
+        return notifications.get();
+    }
+}
@@ -1,8 +1,12 @@
 package com.kode.Design_Patterns.behavioral.observer;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+
 public class Main {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException, IOException {
         BitCoin bitCoin = new BitCoin(0.0);
         BitCoinManager bitCoinManager = new BitCoinManager(bitCoin);
         bitCoinManager.addConsumer(new EmailConsumer());
@@ -10,5 +14,43 @@ public class Main {
         bitCoinManager.setPrice(10.0);
         bitCoinManager.setPrice(11.0);
 
+        //every price also goes to the journal, a late consumer replays it and then continues live
+        TickJournal journal = new TickJournal(Files.createTempFile("bitcoin", ".journal"));
+        bitCoinManager.addConsumer(journal);
+        bitCoinManager.setPrice(11.5);
+        journal.subscribe((price, timestamp) -> System.out.println("late consumer got " + price), 1);
+        bitCoinManager.removeConsumer(journal);
+
+        //async: setPrice returns at once, every consumer reads the ring on its own thread
+        bitCoinManager.startAsyncDispatch(1024);
+        bitCoinManager.setPrice(12.0);
+        bitCoinManager.setPrice(13.0);
+        Thread.sleep(100);
+        bitCoinManager.stopAsyncDispatch();
+
+        //batching: 10 000 prices, a handful of gateway calls
+        LocalBulkSender gateway = new LocalBulkSender();
+        try (BatchingConsumer email = EmailConsumer.batching(gateway, 5_000, Duration.ofSeconds(1));
+             BatchingConsumer sms = SmsConsumer.batching(gateway, 5_000, Duration.ofSeconds(1))) {
+            BitCoinManager batched = new BitCoinManager(new BitCoin(0.0));
+            batched.addConsumer(email);
+            batched.addConsumer(sms);
+            for (int i = 0; i < 10_000; i++)
+                batched.setPrice(20.0 + i);
+        }
+        System.out.println(gateway.notifications() + " notifications in " + gateway.calls() + " gateway calls");
+
+        //many instruments: each tick only reaches the consumers of its symbol
+        //a consumer that throws is dropped and reported once, not on every tick
+        try (MarketDataHub hub = new MarketDataHub(2, 1024,
+                (symbol, consumer, failure) -> System.out.println("dropped a " + symbol + " consumer: " + failure))) {
+            hub.subscribe("BTC", (symbol, price, timestamp) -> System.out.println("email " + symbol + " " + price));
+            hub.subscribe("ETH", (symbol, price, timestamp) -> System.out.println("sms " + symbol + " " + price));
+            hub.publish("BTC", 14.0, System.currentTimeMillis());
+            hub.publish("ETH", 2.0, System.currentTimeMillis());
+            hub.publish("DOGE", 0.1, System.currentTimeMillis());
+            Thread.sleep(100);
+        }
+
     }
 }
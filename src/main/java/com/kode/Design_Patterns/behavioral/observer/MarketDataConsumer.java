@@ -0,0 +1,7 @@
+package com.kode.Design_Patterns.behavioral.observer;
+
+//observer of a MarketDataHub, symbol is the instance it subscribed with
+public interface MarketDataConsumer {
+
+    void onTick(String symbol, double price, long timestamp);
+}
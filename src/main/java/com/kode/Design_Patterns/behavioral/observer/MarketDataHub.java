@@ -0,0 +1,216 @@
+package com.kode.Design_Patterns.behavioral.observer;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+//publisher for many instruments at once (BitCoinManager / NiftyFiftyManager hold exactly one)
+//  topic index -> symbol to the consumers subscribed to that symbol, a tick only reaches those
+//  shards      -> every symbol belongs to one shard (round robin on first subscribe), a shard is a
+//                 dispatcher thread reading a preallocated ring, so fan out runs on as many cores as shards
+//per symbol order is kept because a symbol always goes through the same shard
+//publish() allocates nothing, it waits only when its shard's ring is full, i.e. that shard's consumers are behind
+//a consumer that throws is unsubscribed from that symbol, counted in failedConsumers() and handed to the
+//FailureHandler once, the shard keeps going
+public class MarketDataHub implements AutoCloseable {
+    private static final MarketDataConsumer[] NONE = new MarketDataConsumer[0];
+
+    //runs on the shard thread, an exception it throws is ignored
+    @FunctionalInterface
+    public interface FailureHandler {
+        void onDropped(String symbol, MarketDataConsumer consumer, RuntimeException failure);
+    }
+
+    private final ConcurrentHashMap<String, Topic> topics = new ConcurrentHashMap<>();
+    private final Shard[] shards;
+    private final AtomicLong nextShard = new AtomicLong();
+    private final AtomicLong failedConsumers = new AtomicLong();
+
+    public MarketDataHub() {
+        this(Runtime.getRuntime().availableProcessors(), 4096);
+    }
+
+    public MarketDataHub(int shardCount, int ringSize) {
+        this(shardCount, ringSize, (symbol, consumer, failure) -> { });
+    }
+
+    public MarketDataHub(int shardCount, int ringSize, FailureHandler failureHandler) {
+        if (shardCount <= 0)
+            throw new IllegalArgumentException("need at least one shard: " + shardCount);
+        if (ringSize <= 0 || Integer.bitCount(ringSize) != 1)
+            throw new IllegalArgumentException("ring size must be a power of two: " + ringSize);
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, ringSize, failedConsumers, failureHandler);
+            shards[i].start();
+        }
+    }
+
+    public void subscribe(String symbol, MarketDataConsumer consumer) {
+        topics.computeIfAbsent(symbol, s -> new Topic(s, shards[(int) (nextShard.getAndIncrement() % shards.length)]))
+                .add(consumer);
+    }
+
+    public void unsubscribe(String symbol, MarketDataConsumer consumer) {
+        Topic topic = topics.get(symbol);
+        if (topic != null)
+            topic.remove(consumer);
+    }
+
+    //ticks for symbols nobody subscribed to are dropped here and never reach a shard
+    public void publish(String symbol, double price, long timestamp) {
+        Topic topic = topics.get(symbol);
+        if (topic == null || topic.subscribers.length == 0)
+            return;
+        topic.shard.publish(topic, price, timestamp);
+    }
+
+    public int symbolCount() {
+        return topics.size();
+    }
+
+    //consumers dropped because onTick threw
+    public long failedConsumers() {
+        return failedConsumers.get();
+    }
+
+    public int shardOf(String symbol) {
+        Topic topic = topics.get(symbol);
+        return topic == null ? -1 : topic.shard.index;
+    }
+
+    @Override
+    public void close() {
+        for (Shard shard : shards)
+            shard.halt();
+    }
+
+    private static final class Topic {
+        final String symbol;
+        final Shard shard;
+        volatile MarketDataConsumer[] subscribers = NONE;
+
+        Topic(String symbol, Shard shard) {
+            this.symbol = symbol;
+            this.shard = shard;
+        }
+
+        synchronized void add(MarketDataConsumer consumer) {
+            MarketDataConsumer[] grown = Arrays.copyOf(subscribers, subscribers.length + 1);
+            grown[subscribers.length] = consumer;
+            subscribers = grown;
+        }
+
+        synchronized void remove(MarketDataConsumer consumer) {
+            MarketDataConsumer[] current = subscribers;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == consumer) {
+                    MarketDataConsumer[] shrunk = new MarketDataConsumer[current.length - 1];
+                    System.arraycopy(current, 0, shrunk, 0, i);
+                    System.arraycopy(current, i + 1, shrunk, i, current.length - i - 1);
+                    subscribers = shrunk;
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class Shard extends Thread {
+        final int index;
+        private final int mask;
+        private final AtomicReferenceArray<Topic> topics;
+        private final AtomicLongArray prices;
+        private final AtomicLongArray timestamps;
+        private final AtomicLong cursor = new AtomicLong(-1);
+        private final AtomicLong consumed = new AtomicLong(-1);
+        private final AtomicLong failedConsumers;
+        private final FailureHandler failureHandler;
+        private long next;
+        private volatile boolean running = true;
+
+        Shard(int index, int ringSize, AtomicLong failedConsumers, FailureHandler failureHandler) {
+            super("market-data-shard-" + index);
+            setDaemon(true);
+            this.index = index;
+            this.failedConsumers = failedConsumers;
+            this.failureHandler = failureHandler;
+            this.mask = ringSize - 1;
+            this.topics = new AtomicReferenceArray<>(ringSize);
+            this.prices = new AtomicLongArray(ringSize);
+            this.timestamps = new AtomicLongArray(ringSize);
+        }
+
+        //publishers of the same shard take turns, other shards are not affected
+        synchronized void publish(Topic topic, double price, long timestamp) {
+            long sequence = next++;
+            int idle = 0;
+            while (sequence - consumed.getAcquire() > mask && running)
+                idle = idleWait(idle);
+            int slot = (int) sequence & mask;
+            topics.setPlain(slot, topic);
+            prices.setPlain(slot, Double.doubleToRawLongBits(price));
+            timestamps.setPlain(slot, timestamp);
+            cursor.setRelease(sequence);
+        }
+
+        //if the thread dies anyway (an Error), running goes false so publishers stop waiting on a ring nobody drains
+        @Override
+        public void run() {
+            try {
+                long sequence = 0;
+                int idle = 0;
+                while (running) {
+                    long available = cursor.getAcquire();
+                    if (available < sequence) {
+                        idle = idleWait(idle);
+                        continue;
+                    }
+                    idle = 0;
+                    for (; sequence <= available; sequence++) {
+                        int slot = (int) sequence & mask;
+                        Topic topic = topics.getPlain(slot);
+                        double price = Double.longBitsToDouble(prices.getPlain(slot));
+                        long timestamp = timestamps.getPlain(slot);
+                        for (MarketDataConsumer consumer : topic.subscribers)
+                            deliver(topic, consumer, price, timestamp);
+                        consumed.setRelease(sequence);
+                    }
+                }
+            } finally {
+                running = false;
+            }
+        }
+
+        private void deliver(Topic topic, MarketDataConsumer consumer, double price, long timestamp) {
+            try {
+                consumer.onTick(topic.symbol, price, timestamp);
+            } catch (RuntimeException e) {
+                topic.remove(consumer);
+                failedConsumers.incrementAndGet();
+                try {
+                    failureHandler.onDropped(topic.symbol, consumer, e);
+                } catch (RuntimeException ignored) {
+                    //the consumer is already gone, the shard must not die over the report
+                }
+            }
+        }
+
+        void halt() {
+            running = false;
+            LockSupport.unpark(this);
+        }
+
+        private static int idleWait(int idle) {
+            if (idle < 100)
+                Thread.onSpinWait();
+            else if (idle < 200)
+                Thread.yield();
+            else
+                LockSupport.parkNanos(50_000);
+            return idle + 1;
+        }
+    }
+}
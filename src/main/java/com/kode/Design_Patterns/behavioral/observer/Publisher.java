@@ -1,25 +1,131 @@
 package com.kode.Design_Patterns.behavioral.observer;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.time.Duration;
+import java.util.Map;
 
 //step1: create an abstract for publisher + registry
 //why abstract -> we dont need object of this class , will extend this in BitCoinMAnager
 public abstract class Publisher {
-    private List<Consumer> consumerList = new ArrayList<>();
+    private final SubscriberRegistry<TickConsumer> consumerList = new SubscriberRegistry<>();
+    //null -> consumers are called on the publishing thread
+    private volatile RingBufferDispatcher dispatcher;
+    //null -> consumer calls are not timed
+    private volatile ConsumerLatencyMonitor<TickConsumer> latencyMonitor;
 
     public void publish(Double price){
-            consumerList.forEach(consumer -> consumer.consume(price));
+        RingBufferDispatcher dispatcher = this.dispatcher;
+        if (dispatcher != null) {
+            dispatcher.publish(price, System.currentTimeMillis());
+            return;
+        }
+        long timestamp = System.currentTimeMillis();
+        ConsumerLatencyMonitor<TickConsumer> latencyMonitor = this.latencyMonitor;
+        if (latencyMonitor != null) {
+            latencyMonitor.publish(consumerList, price, timestamp);
+            return;
+        }
+            consumerList.forEach(consumer -> {
+                if (consumer instanceof Consumer boxed)
+                    boxed.consume(price);
+                else
+                    consumer.consume(price, timestamp);
+            });
     }
 
-    public void addConsumer(Consumer consumer){
+    //primitive path, nothing is allocated for TickConsumers
+    public void publish(double price, long timestamp){
+        RingBufferDispatcher dispatcher = this.dispatcher;
+        if (dispatcher != null) {
+            dispatcher.publish(price, timestamp);
+            return;
+        }
+        ConsumerLatencyMonitor<TickConsumer> latencyMonitor = this.latencyMonitor;
+        if (latencyMonitor != null) {
+            latencyMonitor.publish(consumerList, price, timestamp);
+            return;
+        }
+        consumerList.forEach(TickConsumer::consume, price, timestamp);
+    }
+
+    //same lock as start/stopAsyncDispatch, a consumer added while dispatch starts is in the registry before
+    //the dispatcher copies it or it sees the dispatcher, never neither
+    public synchronized void addConsumer(TickConsumer consumer){
         consumerList.add(consumer);
+        RingBufferDispatcher dispatcher = this.dispatcher;
+        if (dispatcher != null)
+            dispatcher.addConsumer(consumer);
 
     }
 
-    public void removeConsumer(Consumer consumer){
+    public synchronized void removeConsumer(TickConsumer consumer){
         consumerList.remove(consumer);
+        RingBufferDispatcher dispatcher = this.dispatcher;
+        if (dispatcher != null)
+            dispatcher.removeConsumer(consumer);
+        ConsumerLatencyMonitor<TickConsumer> latencyMonitor = this.latencyMonitor;
+        if (latencyMonitor != null)
+            latencyMonitor.remove(consumer);
+
+    }
+
+    //every consumer gets its own thread reading from a ring of ringSize prices (power of two)
+    public synchronized void startAsyncDispatch(int ringSize){
+        if (dispatcher != null)
+            return;
+        RingBufferDispatcher started = new RingBufferDispatcher(ringSize);
+        consumerList.forEach(started::addConsumer);
+        dispatcher = started;
+    }
+
+    public synchronized void stopAsyncDispatch(){
+        if (dispatcher == null)
+            return;
+        dispatcher.shutdown();
+        dispatcher = null;
+    }
+
+    //times every consumer on the synchronous path, a consumer over budget strikeLimit times in a row moves to a slow lane
+    public synchronized void startLatencyTracking(Duration budget, int strikeLimit){
+        if (latencyMonitor != null)
+            return;
+        latencyMonitor = new ConsumerLatencyMonitor<>(TickConsumer::consume, budget, strikeLimit, 1024);
+    }
+
+    public synchronized void stopLatencyTracking(){
+        if (latencyMonitor == null)
+            return;
+        latencyMonitor.close();
+        latencyMonitor = null;
+    }
+
+    //null when tracking is off or the consumer was not called yet
+    public ConsumerLatencyMonitor.Stats latencyStats(TickConsumer consumer){
+        ConsumerLatencyMonitor<TickConsumer> latencyMonitor = this.latencyMonitor;
+        return latencyMonitor == null ? null : latencyMonitor.stats(consumer);
+    }
+
+    public Map<TickConsumer, ConsumerLatencyMonitor.Stats> latencyStats(){
+        ConsumerLatencyMonitor<TickConsumer> latencyMonitor = this.latencyMonitor;
+        return latencyMonitor == null ? Map.of() : latencyMonitor.stats();
+    }
+
+    //prices a lagging consumer skipped in async mode
+    public long missed(TickConsumer consumer){
+        RingBufferDispatcher dispatcher = this.dispatcher;
+        return dispatcher == null ? 0 : dispatcher.missed(consumer);
+    }
+
+    //prices as a java.util.concurrent.Flow source, every Flow subscriber gets a buffer of bufferSize prices
+    //closing the returned publisher removes it from the consumers
+    public FlowPricePublisher asFlowPublisher(int bufferSize, FlowPricePublisher.OverflowPolicy policy){
+        FlowPricePublisher flowPublisher = new FlowPricePublisher(bufferSize, policy);
+        addConsumer(flowPublisher);
+        flowPublisher.onClose(() -> removeConsumer(flowPublisher));
+        return flowPublisher;
+    }
 
+    public int consumerCount(){
+        return consumerList.size();
     }
 
 
@@ -0,0 +1,180 @@
+package com.kode.Design_Patterns.behavioral.observer;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+//asynchronous dispatch over a preallocated ring of price slots (disruptor style)
+//  producer -> claims the next sequence, writes the slot, moves the cursor, never allocates and never waits for consumers
+//  consumer -> one thread per consumer with its own sequence, reads up to the cursor at its own pace
+//a consumer that falls a whole ring behind is lapped: it skips to the oldest price still in the ring and the
+//skipped prices are counted in missed(), the producer is never held back by a slow consumer
+//an idle consumer spins, yields, then parks with a growing timeout, the producer unparks parked consumers
+//when it publishes, so a quiet ring costs no cpu and the first price after a quiet spell is not delayed by the park
+public class RingBufferDispatcher {
+    private static final int SPINS = 100;
+    private static final int YIELDS = 100;
+    private static final long MIN_PARK_NANOS = 10_000;
+    private static final long MAX_PARK_NANOS = 1_000_000;
+    //MIN_PARK_NANOS << 7 is past MAX_PARK_NANOS
+    private static final int MAX_IDLE = SPINS + YIELDS + 7;
+    private final int mask;
+    private final AtomicLongArray slots;
+    private final AtomicLongArray timestamps;
+    //claim moves before a slot is overwritten, cursor after it is published
+    private final AtomicLong claim = new AtomicLong(-1);
+    private final AtomicLong cursor = new AtomicLong(-1);
+    //by instance, two consumers that are equal still get a thread each, guarded by itself
+    private final Map<TickConsumer, Worker> workers = new IdentityHashMap<>();
+    //copy of the workers for publish() to unpark, replaced under the workers lock
+    private volatile Worker[] threads = new Worker[0];
+    private final AtomicInteger parkedCount = new AtomicInteger();
+
+    public RingBufferDispatcher(int ringSize) {
+        if (ringSize <= 0 || Integer.bitCount(ringSize) != 1)
+            throw new IllegalArgumentException("ring size must be a power of two: " + ringSize);
+        this.mask = ringSize - 1;
+        this.slots = new AtomicLongArray(ringSize);
+        this.timestamps = new AtomicLongArray(ringSize);
+    }
+
+    //producers are serialized among themselves only, consumers are never waited for
+    public synchronized void publish(double price, long timestamp) {
+        long sequence = claim.get() + 1;
+        claim.set(sequence);
+        slots.setRelease((int) sequence & mask, Double.doubleToRawLongBits(price));
+        timestamps.setRelease((int) sequence & mask, timestamp);
+        //a full store, a worker about to park either counts itself in parkedCount before this or sees the new cursor
+        cursor.set(sequence);
+        if (parkedCount.get() > 0)
+            wakeParked();
+    }
+
+    private void wakeParked() {
+        for (Worker worker : threads)
+            if (worker.parked)
+                LockSupport.unpark(worker);
+    }
+
+    public void addConsumer(TickConsumer consumer) {
+        synchronized (workers) {
+            workers.computeIfAbsent(consumer, c -> {
+                Worker worker = new Worker(c, cursor.get() + 1);
+                worker.start();
+                return worker;
+            });
+            threads = workers.values().toArray(new Worker[0]);
+        }
+    }
+
+    public void removeConsumer(TickConsumer consumer) {
+        Worker worker;
+        synchronized (workers) {
+            worker = workers.remove(consumer);
+            threads = workers.values().toArray(new Worker[0]);
+        }
+        if (worker != null)
+            worker.halt();
+    }
+
+    public long missed(TickConsumer consumer) {
+        Worker worker;
+        synchronized (workers) {
+            worker = workers.get(consumer);
+        }
+        return worker == null ? 0 : worker.missed;
+    }
+
+    public void shutdown() {
+        List<Worker> halted;
+        synchronized (workers) {
+            halted = new ArrayList<>(workers.values());
+            workers.clear();
+            threads = new Worker[0];
+        }
+        halted.forEach(Worker::halt);
+    }
+
+    private final class Worker extends Thread {
+        private final TickConsumer consumer;
+        private long next;
+        private volatile long missed;
+        private volatile boolean running = true;
+        private volatile boolean parked;
+
+        Worker(TickConsumer consumer, long next) {
+            super("ring-consumer-" + consumer.getClass().getSimpleName());
+            setDaemon(true);
+            this.consumer = consumer;
+            this.next = next;
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (running) {
+                long available = cursor.getAcquire();
+                if (available < next) {
+                    idle = idleWait(idle);
+                    continue;
+                }
+                idle = 0;
+                while (next <= available && running) {
+                    if (available - next > mask) {
+                        lapped(available);
+                        continue;
+                    }
+                    double price = Double.longBitsToDouble(slots.getAcquire((int) next & mask));
+                    long timestamp = timestamps.getAcquire((int) next & mask);
+                    //slot may have been overwritten while it was read
+                    if (claim.getAcquire() - next > mask) {
+                        lapped(claim.getAcquire());
+                        continue;
+                    }
+                    next++;
+                    consumer.consume(price, timestamp);
+                }
+            }
+        }
+
+        private void lapped(long head) {
+            long oldest = head - mask;
+            missed += oldest - next;
+            next = oldest;
+        }
+
+        //spin, then yield, then park for 10us doubling up to 1ms, publish() ends the park early
+        private int idleWait(int idle) {
+            if (idle < SPINS)
+                Thread.onSpinWait();
+            else if (idle < SPINS + YIELDS)
+                Thread.yield();
+            else
+                park(Math.min(MIN_PARK_NANOS << (idle - SPINS - YIELDS), MAX_PARK_NANOS));
+            return Math.min(idle + 1, MAX_IDLE);
+        }
+
+        private void park(long nanos) {
+            parked = true;
+            parkedCount.incrementAndGet();
+            try {
+                //re-checked after counting in, a price published before that is not slept through
+                if (cursor.get() < next && running)
+                    LockSupport.parkNanos(this, nanos);
+            } finally {
+                parkedCount.decrementAndGet();
+                parked = false;
+            }
+        }
+
+        void halt() {
+            running = false;
+            LockSupport.unpark(this);
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package com.kode.Design_Patterns.behavioral.observer;
 
+import java.time.Duration;
+
 public class SmsConsumer implements Consumer{
     @Override
     public void consume(Double price) {
         System.out.println("sending sms for price: "+ price);
     }
+
+    //batching mode: sms go out through the bulk gateway, maxBatch at a time or once per window
+    public static BatchingConsumer batching(BulkSender sender, int maxBatch, Duration window) {
+        return new BatchingConsumer("sms", sender, maxBatch, window);
+    }
 }
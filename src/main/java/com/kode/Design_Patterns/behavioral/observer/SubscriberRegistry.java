@@ -0,0 +1,100 @@
+package com.kode.Design_Patterns.behavioral.observer;
+
+import java.util.Arrays;
+
+//thread safe subscriber registry for publishers with a large, churning audience
+//subscribers are spread over stripes by identity hash, every stripe is a copy on write array:
+//  forEach -> reads each stripe's current array, no locks, never throws ConcurrentModificationException
+//  add / remove -> lock and copy one stripe only, so churn costs size / stripes, not size
+//iteration is a plain array walk, its cost stays linear in the number of subscribers
+//subscribers are matched by reference, not equals: a subscriber whose equals / hashCode change after it
+//subscribed (e.g. a Lombok @Data user with a mutable name) is still found, and equal subscribers stay separate
+public class SubscriberRegistry<T> {
+    public static final int DEFAULT_STRIPES = 256;
+    private static final Object[] EMPTY = new Object[0];
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    public SubscriberRegistry() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public SubscriberRegistry(int stripeCount) {
+        if (stripeCount <= 0 || Integer.bitCount(stripeCount) != 1)
+            throw new IllegalArgumentException("stripe count must be a power of two: " + stripeCount);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++)
+            stripes[i] = new Stripe();
+        this.mask = stripeCount - 1;
+    }
+
+    public void add(T subscriber) {
+        Stripe stripe = stripeOf(subscriber);
+        synchronized (stripe) {
+            Object[] items = stripe.items;
+            Object[] grown = Arrays.copyOf(items, items.length + 1);
+            grown[items.length] = subscriber;
+            stripe.items = grown;
+        }
+    }
+
+    //removes the first registration of this subscriber instance, returns false if it was not registered
+    public boolean remove(T subscriber) {
+        Stripe stripe = stripeOf(subscriber);
+        synchronized (stripe) {
+            Object[] items = stripe.items;
+            for (int i = 0; i < items.length; i++) {
+                if (items[i] == subscriber) {
+                    Object[] shrunk = items.length == 1 ? EMPTY : new Object[items.length - 1];
+                    System.arraycopy(items, 0, shrunk, 0, i);
+                    System.arraycopy(items, i + 1, shrunk, i, items.length - i - 1);
+                    stripe.items = shrunk;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    //subscribers added or removed during the walk may or may not be seen, the others are seen exactly once
+    @SuppressWarnings("unchecked")
+    public void forEach(java.util.function.Consumer<? super T> action) {
+        for (Stripe stripe : stripes) {
+            Object[] items = stripe.items;
+            for (Object item : items)
+                action.accept((T) item);
+        }
+    }
+
+    //allocation free walk for price ticks, pass a non capturing visitor (static method reference)
+    @SuppressWarnings("unchecked")
+    public void forEach(PriceVisitor<? super T> visitor, double price, long timestamp) {
+        for (Stripe stripe : stripes) {
+            Object[] items = stripe.items;
+            for (Object item : items)
+                visitor.visit((T) item, price, timestamp);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes)
+            size += stripe.items.length;
+        return size;
+    }
+
+    //identity hash never changes for an instance, so remove always looks in the stripe add used
+    private Stripe stripeOf(T subscriber) {
+        int h = System.identityHashCode(subscriber);
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+
+    public interface PriceVisitor<T> {
+        void visit(T subscriber, double price, long timestamp);
+    }
+
+    private static final class Stripe {
+        volatile Object[] items = EMPTY;
+    }
+}
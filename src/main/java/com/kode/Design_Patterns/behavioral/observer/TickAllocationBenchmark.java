@@ -0,0 +1,58 @@
+package com.kode.Design_Patterns.behavioral.observer;
+
+import java.lang.management.ManagementFactory;
+
+//bytes allocated per published tick, measured with the per thread allocation counter of the JVM
+//(the same counter JMH's gc profiler reads), for the primitive path and for boxed consumers
+//run: java ... TickAllocationBenchmark [subscribers]
+public class TickAllocationBenchmark {
+    private static final int WARMUP_TICKS = 2_000_000;
+    private static final int TICKS = 5_000_000;
+
+    public static void main(String[] args) {
+        int subscribers = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+
+        BitCoinManager primitive = new BitCoinManager(new BitCoin(0.0));
+        Sink sink = new Sink();
+        for (int i = 0; i < subscribers; i++)
+            primitive.addConsumer(sink);
+        System.out.printf("primitive TickConsumer x%d: %.2f bytes/tick%n", subscribers,
+                bytesPerTick(tick -> primitive.setPrice(tick, tick)));
+
+        BitCoinManager boxed = new BitCoinManager(new BitCoin(0.0));
+        for (int i = 0; i < subscribers; i++)
+            boxed.addConsumer((Consumer) price -> sink.last = price);
+        System.out.printf("boxed Consumer x%d:        %.2f bytes/tick%n", subscribers,
+                bytesPerTick(tick -> boxed.setPrice(tick, tick)));
+        System.out.println(sink.sum + " " + sink.last);
+    }
+
+    public interface Tick {
+        void run(long tick);
+    }
+
+    //warm up so the publishing path is compiled, then count what the calling thread allocates
+    public static double bytesPerTick(Tick tick) {
+        for (int i = 0; i < WARMUP_TICKS; i++)
+            tick.run(i);
+        long before = allocatedBytes();
+        for (int i = 0; i < TICKS; i++)
+            tick.run(i);
+        return (double) (allocatedBytes() - before) / TICKS;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    private static final class Sink implements TickConsumer {
+        double sum;
+        //keeps the boxed price reachable, like any consumer that stores or forwards it
+        Double last;
+
+        @Override
+        public void consume(double price, long timestamp) {
+            sum += price;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.kode.Design_Patterns.behavioral.observer;
+
+//primitive observer: price and timestamp (epoch millis) arrive unboxed, so a tick allocates nothing per subscriber
+public interface TickConsumer {
+
+    void consume(double price, long timestamp);
+}
@@ -0,0 +1,175 @@
+package com.kode.Design_Patterns.behavioral.observer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+//persistent journal of every published tick, register it as a consumer of the publisher
+//  bitCoinManager.addConsumer(journal)  /  niftyFiftyManager.addUser((TickObserver) journal::consume)
+//fixed size records [sequence:8][timestamp:8][price:8] in a memory mapped file, mapped chunk by chunk as it grows,
+//sequence numbers start at 1 and the sequence is written last, so an empty or torn record reads as 0
+//a late consumer subscribes from a sequence or a timestamp: it replays the history, then switches to live ticks
+//from this journal with no gap and no duplicate (the last stretch of the replay runs under the append lock)
+public class TickJournal implements TickConsumer, AutoCloseable {
+    static final int RECORD_SIZE = 24;
+    public static final int DEFAULT_RECORDS_PER_CHUNK = 1 << 20;
+    //replay without the lock until the consumer is this close to the tail
+    private static final int LOCKED_CATCH_UP = 1024;
+
+    private final FileChannel channel;
+    private final int recordsPerChunk;
+    private volatile MappedByteBuffer[] chunks = new MappedByteBuffer[0];
+    private volatile long lastSequence;
+    private final SubscriberRegistry<TickConsumer> live = new SubscriberRegistry<>(16);
+
+    public TickJournal(Path file) {
+        this(file, DEFAULT_RECORDS_PER_CHUNK);
+    }
+
+    public TickJournal(Path file, int recordsPerChunk) {
+        if (recordsPerChunk <= 0 || (long) recordsPerChunk * RECORD_SIZE > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("records per chunk out of range: " + recordsPerChunk);
+        this.recordsPerChunk = recordsPerChunk;
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long existing = channel.size() / RECORD_SIZE;
+            for (long chunk = 0; chunk * recordsPerChunk < existing; chunk++)
+                map((int) chunk);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.lastSequence = recoverTail();
+    }
+
+    @Override
+    public synchronized void consume(double price, long timestamp) {
+        append(price, timestamp);
+        live.forEach(TickConsumer::consume, price, timestamp);
+    }
+
+    //returns the sequence of the new record
+    public synchronized long append(double price, long timestamp) {
+        long sequence = lastSequence + 1;
+        int chunk = chunkOf(sequence);
+        if (chunk >= chunks.length)
+            map(chunk);
+        MappedByteBuffer buffer = chunks[chunk];
+        int offset = offsetOf(sequence);
+        buffer.putLong(offset + 8, timestamp);
+        buffer.putLong(offset + 16, Double.doubleToRawLongBits(price));
+        buffer.putLong(offset, sequence);
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    //first sequence with a timestamp at or after timestamp (timestamps are expected not to go backwards)
+    public long sequenceAt(long timestamp) {
+        long low = 1;
+        long high = lastSequence + 1;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (timestampOf(mid) < timestamp)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    //history only: ticks fromSequence..lastSequence as they are right now, returns the next sequence to read
+    public long replay(long fromSequence, TickConsumer consumer) {
+        return replay(Math.max(1, fromSequence), lastSequence, consumer);
+    }
+
+    //replay from fromSequence, then receive every new tick live
+    public void subscribe(TickConsumer consumer, long fromSequence) {
+        long next = Math.max(1, fromSequence);
+        while (lastSequence - next >= LOCKED_CATCH_UP)
+            next = replay(next, lastSequence, consumer);
+        synchronized (this) {
+            replay(next, lastSequence, consumer);
+            live.add(consumer);
+        }
+    }
+
+    public void subscribeFrom(TickConsumer consumer, long fromTimestamp) {
+        subscribe(consumer, sequenceAt(fromTimestamp));
+    }
+
+    public void unsubscribe(TickConsumer consumer) {
+        live.remove(consumer);
+    }
+
+    //make the journal durable on disk, the OS writes it back on its own otherwise
+    public void force() {
+        for (MappedByteBuffer chunk : chunks)
+            chunk.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        force();
+        chunks = new MappedByteBuffer[0];
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long replay(long from, long to, TickConsumer consumer) {
+        MappedByteBuffer[] mapped = chunks;
+        for (long sequence = from; sequence <= to; sequence++) {
+            MappedByteBuffer buffer = mapped[chunkOf(sequence)];
+            int offset = offsetOf(sequence);
+            consumer.consume(Double.longBitsToDouble(buffer.getLong(offset + 16)), buffer.getLong(offset + 8));
+        }
+        return Math.max(from, to + 1);
+    }
+
+    private long timestampOf(long sequence) {
+        return chunks[chunkOf(sequence)].getLong(offsetOf(sequence) + 8);
+    }
+
+    //records are written in order, so the filled records are a prefix: binary search for the first empty one
+    private long recoverTail() {
+        long low = 0;
+        long high = (long) chunks.length * recordsPerChunk;
+        while (low < high) {
+            long mid = (low + high + 1) >>> 1;
+            if (chunks[chunkOf(mid)].getLong(offsetOf(mid)) == mid)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+        return low;
+    }
+
+    private void map(int chunk) {
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE,
+                    (long) chunk * recordsPerChunk * RECORD_SIZE, (long) recordsPerChunk * RECORD_SIZE);
+            MappedByteBuffer[] grown = Arrays.copyOf(chunks, chunk + 1);
+            grown[chunk] = buffer;
+            chunks = grown;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int chunkOf(long sequence) {
+        return (int) ((sequence - 1) / recordsPerChunk);
+    }
+
+    private int offsetOf(long sequence) {
+        return (int) ((sequence - 1) % recordsPerChunk) * RECORD_SIZE;
+    }
+}
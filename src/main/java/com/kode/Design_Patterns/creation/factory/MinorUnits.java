@@ -0,0 +1,90 @@
+package com.kode.Design_Patterns.creation.factory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+//payment amounts as a long count of minor units (paise / cents), 12.34 -> 1234
+//exact, no rounding drift when amounts are added up, and passed around without boxing
+//parse / of(BigDecimal) refuse more than two decimals instead of rounding them away
+public final class MinorUnits {
+    public static final int SCALE = 2;
+    private static final long FACTOR = 100;
+
+    private MinorUnits() {
+    }
+
+    //"12", "12.3", "12.34", "-0.50", no exponent, no grouping, no allocation
+    public static long parse(CharSequence text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = length > 0 && text.charAt(0) == '-';
+        if (negative || (length > 0 && text.charAt(0) == '+'))
+            i++;
+        long units = 0;
+        int digits = 0;
+        for (; i < length && text.charAt(i) != '.'; i++, digits++)
+            units = Math.addExact(Math.multiplyExact(units, 10), digit(text, i));
+        long fraction = 0;
+        int decimals = 0;
+        if (i < length) {
+            for (i++; i < length; i++, decimals++) {
+                if (decimals == SCALE)
+                    throw new IllegalArgumentException("more than " + SCALE + " decimals in amount: " + text);
+                fraction = fraction * 10 + digit(text, i);
+            }
+        }
+        if (digits == 0 && decimals == 0)
+            throw new IllegalArgumentException("not an amount: " + text);
+        for (; decimals < SCALE; decimals++)
+            fraction *= 10;
+        //a negative amount is built on the negative side, so Long.MIN_VALUE parses like it formats
+        if (negative)
+            return Math.subtractExact(Math.multiplyExact(-units, FACTOR), fraction);
+        return Math.addExact(Math.multiplyExact(units, FACTOR), fraction);
+    }
+
+    public static long of(BigDecimal amount) {
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("not an amount with at most " + SCALE + " decimals: " + amount, e);
+        }
+    }
+
+    //for callers still on Double, the shortest decimal form of the double is rounded half even to two decimals
+    public static long of(double amount) {
+        return BigDecimal.valueOf(amount).setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long amountMinor) {
+        return BigDecimal.valueOf(amountMinor, SCALE);
+    }
+
+    //for external APIs that only take a floating point amount
+    public static double toDouble(long amountMinor) {
+        return amountMinor / (double) FACTOR;
+    }
+
+    public static String format(long amountMinor) {
+        return format(new StringBuilder(24), amountMinor).toString();
+    }
+
+    //units and fraction are split before the sign is dropped, Math.abs(Long.MIN_VALUE) would stay negative
+    public static StringBuilder format(StringBuilder out, long amountMinor) {
+        long units = amountMinor / FACTOR;
+        long fraction = amountMinor % FACTOR;
+        if (amountMinor < 0) {
+            out.append('-');
+            units = -units;
+            fraction = -fraction;
+        }
+        return out.append(units).append('.').append(fraction < 10 ? "0" : "").append(fraction);
+    }
+
+    private static int digit(CharSequence text, int index) {
+        char c = text.charAt(index);
+        if (c < '0' || c > '9')
+            throw new IllegalArgumentException("not an amount: " + text);
+        return c - '0';
+    }
+}
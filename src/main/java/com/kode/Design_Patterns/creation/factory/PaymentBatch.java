@@ -0,0 +1,86 @@
+package com.kode.Design_Patterns.creation.factory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+//payments as columns instead of one object per payment
+//  ids[i], methods[i], amounts[i] -> payment i, methods hold an index into the batch's method names
+//adding a payment writes three array slots, a method name is stored once per batch
+//a batch is reusable: clear() keeps the arrays and the method names
+public final class PaymentBatch {
+    private static final int MAX_METHODS = 256;
+
+    private int[] ids;
+    private byte[] methods;
+    private long[] amounts;
+    private String[] methodNames = new String[4];
+    private byte[][] methodBytes = new byte[4][];
+    private int methodCount;
+    private int size;
+
+    public PaymentBatch(int capacity) {
+        this.ids = new int[capacity];
+        this.methods = new byte[capacity];
+        this.amounts = new long[capacity];
+    }
+
+    public void add(int id, String method, long amountMinor) {
+        if (size == ids.length) {
+            int grown = Math.max(8, size * 2);
+            ids = Arrays.copyOf(ids, grown);
+            methods = Arrays.copyOf(methods, grown);
+            amounts = Arrays.copyOf(amounts, grown);
+        }
+        ids[size] = id;
+        methods[size] = (byte) methodIndex(method);
+        amounts[size] = amountMinor;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int id(int index) {
+        return ids[index];
+    }
+
+    public String method(int index) {
+        return methodNames[Byte.toUnsignedInt(methods[index])];
+    }
+
+    public long amount(int index) {
+        return amounts[index];
+    }
+
+    public long total() {
+        long total = 0;
+        for (int i = 0; i < size; i++)
+            total += amounts[i];
+        return total;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    //utf-8 of the method of payment index, shared, do not modify
+    byte[] methodBytes(int index) {
+        return methodBytes[Byte.toUnsignedInt(methods[index])];
+    }
+
+    private int methodIndex(String method) {
+        for (int i = 0; i < methodCount; i++)
+            if (methodNames[i].equals(method))
+                return i;
+        if (methodCount == MAX_METHODS)
+            throw new IllegalStateException("more than " + MAX_METHODS + " payment methods in one batch");
+        if (methodCount == methodNames.length) {
+            methodNames = Arrays.copyOf(methodNames, methodCount * 2);
+            methodBytes = Arrays.copyOf(methodBytes, methodCount * 2);
+        }
+        methodNames[methodCount] = method;
+        methodBytes[methodCount] = method.getBytes(StandardCharsets.UTF_8);
+        return methodCount++;
+    }
+}
@@ -0,0 +1,68 @@
+package com.kode.Design_Patterns.creation.factory;
+
+import com.kode.Design_Patterns.creation.factory.simpleFactory.CardPaymentService;
+import com.kode.Design_Patterns.creation.factory.simpleFactory.PaymentService;
+import com.kode.Design_Patterns.creation.factory.simpleFactory.PaymentServiceFactory;
+import com.kode.Design_Patterns.creation.factory.simpleFactory.UPIPaymentService;
+import com.kode.Design_Patterns.creation.factory.simpleFactory.WalletPaymentService;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+//ns and bytes per lookup: the previous dispatch code vs PaymentDispatchTable
+//  if/else chain + new service  -> old simpleFactory / factoryMethod
+//  HashMap + toUpperCase        -> the cheapest case insensitive fix of the old spring map
+//names are mixed case and rotate so no branch is always taken
+//run: java ... PaymentDispatchBenchmark
+public class PaymentDispatchBenchmark {
+    private static final int WARMUP = 5_000_000;
+    private static final int LOOKUPS = 20_000_000;
+    private static final String[] NAMES = {"card", "UPI", "Wallet", "CARD", "upi", "wallet", "Card", "Upi"};
+
+    private static final Map<String, PaymentService> UPPER_CASE_MAP = new HashMap<>(Map.of(
+            "CARD", new CardPaymentService(), "UPI", new UPIPaymentService(), "WALLET", new WalletPaymentService()));
+    private static int sink;
+
+    public static void main(String[] args) {
+        for (int round = 0; round < 3; round++) {
+            report("if/else + new   ", PaymentDispatchBenchmark::ifElseChain);
+            report("HashMap + upper ", name -> UPPER_CASE_MAP.get(name.toUpperCase()));
+            report("dispatch table  ", PaymentServiceFactory::getInstance);
+        }
+        System.out.println(sink);
+    }
+
+    //previous simpleFactory.PaymentServiceFactory.getInstance
+    private static PaymentService ifElseChain(String name) {
+        if (name.equalsIgnoreCase("wallet"))
+            return new WalletPaymentService();
+        else if (name.equalsIgnoreCase("card"))
+            return new CardPaymentService();
+        else if (name.equalsIgnoreCase("upi"))
+            return new UPIPaymentService();
+        throw new RuntimeException("no service found for " + name);
+    }
+
+    private static void report(String label, Function<String, PaymentService> lookup) {
+        run(lookup, WARMUP);
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        run(lookup, LOOKUPS);
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%s %6.2f ns/lookup %6.2f bytes/lookup%n", label, (double) nanos / LOOKUPS,
+                (double) (allocatedBytes() - bytes) / LOOKUPS);
+    }
+
+    private static void run(Function<String, PaymentService> lookup, int lookups) {
+        int hashes = 0;
+        for (int i = 0; i < lookups; i++)
+            hashes += System.identityHashCode(lookup.apply(NAMES[i & 7])) & 1;
+        sink += hashes;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,85 @@
+package com.kode.Design_Patterns.creation.factory;
+
+import java.util.Map;
+
+//immutable name -> service table shared by simpleFactory, factoryMethod and springWayOfFactory
+//built once from stateless service instances, lookups reuse them:
+//  open addressing over two parallel arrays, the hash folds case char by char
+//  get("card") / get("CARD") / get("Card") -> same instance, no toUpperCase copy, no allocation
+public final class PaymentDispatchTable<S> {
+    private final String[] names;
+    private final Object[] services;
+    private final int mask;
+
+    private PaymentDispatchTable(Map<String, ? extends S> services) {
+        int capacity = Integer.highestOneBit(Math.max(2, services.size() * 2 - 1)) << 1;
+        this.names = new String[capacity];
+        this.services = new Object[capacity];
+        this.mask = capacity - 1;
+        services.forEach((name, service) -> {
+            if (name == null || service == null)
+                throw new IllegalArgumentException("payment name and service are required");
+            int slot = hash(name) & mask;
+            while (names[slot] != null) {
+                if (names[slot].equalsIgnoreCase(name))
+                    throw new IllegalArgumentException("payment names differ only by case: " + names[slot] + ", " + name);
+                slot = (slot + 1) & mask;
+            }
+            names[slot] = name;
+            this.services[slot] = service;
+        });
+    }
+
+    public static <S> PaymentDispatchTable<S> of(Map<String, ? extends S> services) {
+        return new PaymentDispatchTable<>(services);
+    }
+
+    //null when no service is registered under name in any case
+    @SuppressWarnings("unchecked")
+    public S get(String name) {
+        if (name == null)
+            return null;
+        int slot = hash(name) & mask;
+        String candidate;
+        while ((candidate = names[slot]) != null) {
+            if (sameIgnoringCase(candidate, name))
+                return (S) services[slot];
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public int size() {
+        int size = 0;
+        for (String name : names)
+            if (name != null)
+                size++;
+        return size;
+    }
+
+    private static int hash(String name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); i++)
+            h = 31 * h + fold(name.charAt(i));
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean sameIgnoringCase(String a, String b) {
+        if (a.length() != b.length())
+            return false;
+        for (int i = 0; i < a.length(); i++) {
+            char x = a.charAt(i);
+            char y = b.charAt(i);
+            if (x != y && fold(x) != fold(y))
+                return false;
+        }
+        return true;
+    }
+
+    //ascii letters by arithmetic, the rest the way String.equalsIgnoreCase folds them
+    private static int fold(char c) {
+        if (c < 128)
+            return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
@@ -0,0 +1,324 @@
+package com.kode.Design_Patterns.creation.factory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+//append only binary log of payments
+//record: [payloadLength:2][crc32 of payload:4][sequence:8][timestamp:8][amount in minor units:8][method utf-8]
+//one writer thread owns the file: it takes every append queued so far (up to maxBatch), writes them and makes
+//them durable with one force, then releases all their callers (group commit), a PaymentBatch is one append
+//on open the log is read back, every record is checked against its crc, the first torn or corrupt record
+//ends the log and is cut off (logged with the offset and the number of bytes dropped), the totals per
+//method are rebuilt from what is left
+//close() lets every payment accepted so far reach the disk, an append after it throws IllegalStateException
+public class PaymentLedger implements AutoCloseable {
+    private static final System.Logger LOG = System.getLogger(PaymentLedger.class.getName());
+    private static final int HEADER = 2 + 4;
+    private static final int FIXED_PAYLOAD = 8 + 8 + 8;
+    private static final int MAX_METHOD_BYTES = 255;
+    private static final Pending STOP = new Pending(null, null, 0, null, 0);
+
+    private final FileChannel channel;
+    private final int maxBatch;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Map<String, Long> totals = new HashMap<>();
+    private final Thread writer;
+    private final ByteBuffer buffer;
+    private final CRC32 crc = new CRC32();
+    private long nextSequence;
+    private long groupCommits;
+    //guarded by closeLock, an append is either queued before STOP or refused
+    private final Object closeLock = new Object();
+    private boolean closed;
+
+    public PaymentLedger(Path file, int maxBatch) throws IOException {
+        if (maxBatch <= 0)
+            throw new IllegalArgumentException("batch size must be positive: " + maxBatch);
+        this.maxBatch = maxBatch;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = ByteBuffer.allocateDirect(Math.min(maxBatch, 4096) * (HEADER + FIXED_PAYLOAD + MAX_METHOD_BYTES));
+        long end = recover();
+        long size = channel.size();
+        if (end < size)
+            LOG.log(System.Logger.Level.WARNING,
+                    "{0}: dropped {1,number,#} bytes of torn or corrupt records at offset {2,number,#}, kept {3,number,#} payments",
+                    file, size - end, end, nextSequence);
+        channel.truncate(end);
+        channel.position(end);
+        this.writer = new Thread(this::writeLoop, "payment-ledger-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    //returns once the payment is on disk, its sequence number
+    public long append(String method, long amountMinor) {
+        return join(appendAsync(method, amountMinor));
+    }
+
+    //completes with the sequence number once the payment is on disk
+    public CompletableFuture<Long> appendAsync(String method, long amountMinor) {
+        byte[] methodBytes = method.getBytes(StandardCharsets.UTF_8);
+        checkMethod(methodBytes, method);
+        return enqueue(new Pending(method, methodBytes, amountMinor, null, System.currentTimeMillis()));
+    }
+
+    //returns once every payment of the batch is on disk, the sequence number of its first payment
+    public long appendBatch(PaymentBatch batch) {
+        return join(appendBatchAsync(batch));
+    }
+
+    //the batch is read by the writer thread, leave it untouched until the future completes
+    public CompletableFuture<Long> appendBatchAsync(PaymentBatch batch) {
+        for (int i = 0; i < batch.size(); i++)
+            checkMethod(batch.methodBytes(i), batch.method(i));
+        return enqueue(new Pending(null, null, 0, batch, System.currentTimeMillis()));
+    }
+
+    //total amount in minor units per method
+    public synchronized Map<String, Long> totals() {
+        return new HashMap<>(totals);
+    }
+
+    public synchronized long size() {
+        return nextSequence;
+    }
+
+    public synchronized long groupCommits() {
+        return groupCommits;
+    }
+
+    //reads the durable records back in order
+    public void forEach(Consumer<Entry> action) throws IOException {
+        long end;
+        synchronized (this) {
+            end = channel.position();
+        }
+        read(end, action);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (closeLock) {
+            if (closed)
+                return;
+            closed = true;
+            queue.add(STOP);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        //the writer drains up to STOP, anything left means it died or close was interrupted, those callers must not wait forever
+        for (Pending left; (left = queue.poll()) != null; )
+            if (left != STOP)
+                left.done.completeExceptionally(new IllegalStateException("ledger is closed"));
+        channel.close();
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            //STOP is queued last, everything in front of it is written before the loop ends
+            running = !batch.remove(STOP);
+            while (!batch.isEmpty()) {
+                List<Pending> group = batch.subList(0, Math.min(maxBatch, batch.size()));
+                commit(group);
+                group.clear();
+            }
+        }
+    }
+
+    private CompletableFuture<Long> enqueue(Pending pending) {
+        synchronized (closeLock) {
+            if (closed)
+                throw new IllegalStateException("ledger is closed");
+            queue.add(pending);
+        }
+        return pending.done;
+    }
+
+    private static void checkMethod(byte[] methodBytes, String method) {
+        if (methodBytes.length > MAX_METHOD_BYTES)
+            throw new IllegalArgumentException("payment method longer than " + MAX_METHOD_BYTES + " bytes: " + method);
+    }
+
+    private static long join(CompletableFuture<Long> appended) {
+        try {
+            return appended.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    //only the writer thread appends, nextSequence is read here without the lock
+    private void commit(List<Pending> group) {
+        long groupStart = -1;
+        try {
+            groupStart = channel.position();
+            long sequence = nextSequence;
+            buffer.clear();
+            for (Pending pending : group) {
+                PaymentBatch batch = pending.batch;
+                if (batch == null) {
+                    writeRecord(sequence++, pending.timestamp, pending.amount, pending.methodBytes);
+                    continue;
+                }
+                for (int i = 0; i < batch.size(); i++)
+                    writeRecord(sequence++, pending.timestamp, batch.amount(i), batch.methodBytes(i));
+            }
+            drain();
+            channel.force(false);
+            long first = nextSequence;
+            synchronized (this) {
+                for (Pending pending : group) {
+                    PaymentBatch batch = pending.batch;
+                    if (batch == null)
+                        totals.merge(pending.method, pending.amount, Long::sum);
+                    else
+                        for (int i = 0; i < batch.size(); i++)
+                            totals.merge(batch.method(i), batch.amount(i), Long::sum);
+                }
+                nextSequence = sequence;
+                groupCommits++;
+            }
+            for (Pending pending : group) {
+                pending.done.complete(first);
+                first += pending.batch == null ? 1 : pending.batch.size();
+            }
+        } catch (IOException e) {
+            //cut the partly written group off again, the next group continues the sequence in its place
+            try {
+                if (groupStart >= 0) {
+                    channel.truncate(groupStart);
+                    channel.position(groupStart);
+                }
+            } catch (IOException ignored) {
+                //recovery on the next open stops at the first broken record
+            }
+            buffer.clear();
+            for (Pending pending : group)
+                pending.done.completeExceptionally(new UncheckedIOException(e));
+        }
+    }
+
+    //staged in buffer, written out whenever the buffer is full, nothing is allocated per record
+    private void writeRecord(long sequence, long timestamp, long amountMinor, byte[] method) throws IOException {
+        if (buffer.remaining() < HEADER + FIXED_PAYLOAD + method.length)
+            drain();
+        int start = buffer.position();
+        buffer.position(start + HEADER);
+        buffer.putLong(sequence).putLong(timestamp).putLong(amountMinor).put(method);
+        int end = buffer.position();
+        crc.reset();
+        crc.update(buffer.position(start + HEADER).limit(end));
+        buffer.limit(buffer.capacity()).position(end);
+        buffer.putShort(start, (short) (end - start - HEADER)).putInt(start + 2, (int) crc.getValue());
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    //offset just past the last intact record
+    private long recover() throws IOException {
+        return read(channel.size(), entry -> {
+            totals.merge(entry.method(), entry.amountMinor(), Long::sum);
+            nextSequence = entry.sequence() + 1;
+        });
+    }
+
+    //offset just past the last intact record before end
+    private long read(long end, Consumer<Entry> action) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        ByteBuffer payload = ByteBuffer.allocate(FIXED_PAYLOAD + MAX_METHOD_BYTES);
+        CRC32 crc = new CRC32();
+        long position = 0;
+        long expected = 0;
+        while (position + HEADER <= end) {
+            header.clear();
+            if (readFully(header, position) < HEADER)
+                break;
+            int payloadLength = Short.toUnsignedInt(header.getShort(0));
+            if (payloadLength < FIXED_PAYLOAD || payloadLength > payload.capacity() || position + HEADER + payloadLength > end)
+                break;
+            payload.clear().limit(payloadLength);
+            if (readFully(payload, position + HEADER) < payloadLength)
+                break;
+            crc.reset();
+            crc.update(payload.flip());
+            if ((int) crc.getValue() != header.getInt(2))
+                break;
+            payload.rewind();
+            long sequence = payload.getLong();
+            if (sequence != expected)
+                break;
+            long timestamp = payload.getLong();
+            long amount = payload.getLong();
+            String method = StandardCharsets.UTF_8.decode(payload).toString();
+            position += HEADER + payloadLength;
+            expected++;
+            action.accept(new Entry(sequence, timestamp, method, amount));
+        }
+        return position;
+    }
+
+    private int readFully(ByteBuffer dst, long position) throws IOException {
+        int total = 0;
+        while (dst.hasRemaining()) {
+            int read = channel.read(dst, position + total);
+            if (read < 0)
+                break;
+            total += read;
+        }
+        return total;
+    }
+
+    public record Entry(long sequence, long timestamp, String method, long amountMinor) {
+    }
+
+    //one payment (method, amount) or a whole batch
+    private static final class Pending {
+        final String method;
+        final byte[] methodBytes;
+        final long amount;
+        final PaymentBatch batch;
+        final long timestamp;
+        final CompletableFuture<Long> done = new CompletableFuture<>();
+
+        Pending(String method, byte[] methodBytes, long amount, PaymentBatch batch, long timestamp) {
+            this.method = method;
+            this.methodBytes = methodBytes;
+            this.amount = amount;
+            this.batch = batch;
+            this.timestamp = timestamp;
+        }
+    }
+}
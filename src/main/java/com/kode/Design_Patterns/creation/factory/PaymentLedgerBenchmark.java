@@ -0,0 +1,68 @@
+package com.kode.Design_Patterns.creation.factory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//sustained durable payments per second: every payer appends and waits until its payment is forced to disk
+//maxBatch 1 is one force per payment, larger batches let concurrent payers share a force
+//last row: every payer appends PaymentBatches of BATCH_PAYMENTS payments (columnar, one queue entry per batch)
+//run: java ... PaymentLedgerBenchmark [payers] [seconds]
+public class PaymentLedgerBenchmark {
+    private static final int[] BATCH_SIZES = {1, 8, 64, 512};
+    private static final int BATCH_PAYMENTS = 64;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int payers = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        for (int maxBatch : BATCH_SIZES) {
+            Path file = Files.createTempFile("ledger-" + maxBatch, ".log");
+            try (PaymentLedger ledger = new PaymentLedger(file, maxBatch)) {
+                AtomicLong payments = new AtomicLong();
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+                ExecutorService executor = Executors.newFixedThreadPool(payers);
+                for (int i = 0; i < payers; i++) {
+                    executor.execute(() -> {
+                        while (System.nanoTime() < deadline) {
+                            ledger.append("CARD", 1_000);
+                            payments.incrementAndGet();
+                        }
+                    });
+                }
+                executor.shutdown();
+                executor.awaitTermination(seconds + 30L, TimeUnit.SECONDS);
+                System.out.printf("max batch %4d: %9.0f payments/s, %6.1f payments per force%n", maxBatch,
+                        payments.get() / (double) seconds, (double) ledger.size() / ledger.groupCommits());
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        Path file = Files.createTempFile("ledger-columnar", ".log");
+        try (PaymentLedger ledger = new PaymentLedger(file, 64)) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+            ExecutorService executor = Executors.newFixedThreadPool(payers);
+            for (int i = 0; i < payers; i++) {
+                executor.execute(() -> {
+                    PaymentBatch batch = new PaymentBatch(BATCH_PAYMENTS);
+                    while (System.nanoTime() < deadline) {
+                        batch.clear();
+                        for (int id = 0; id < BATCH_PAYMENTS; id++)
+                            batch.add(id, "CARD", 1_000);
+                        ledger.appendBatch(batch);
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(seconds + 30L, TimeUnit.SECONDS);
+            System.out.printf("columnar x%d: %9.0f payments/s, %6.1f payments per force%n", BATCH_PAYMENTS,
+                    ledger.size() / (double) seconds, (double) ledger.size() / ledger.groupCommits());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
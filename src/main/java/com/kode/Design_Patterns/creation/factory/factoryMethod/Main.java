@@ -7,13 +7,13 @@ public class Main {
 
 
         PaymentServiceFactory paymentServiceFactory = new CardPaymentServiceFactory();
-        paymentServiceFactory.getInstance().pay(10.0);
+        paymentServiceFactory.getInstance().pay(1_000);
 
         paymentServiceFactory = new UPIPaymentServiceFactory();
-        paymentServiceFactory.getInstance().pay(10.0);
+        paymentServiceFactory.getInstance().pay(1_000);
 
         paymentServiceFactory = new WalletPaymentServiceFactory();
-        paymentServiceFactory.getInstance().pay(10.0);
+        paymentServiceFactory.getInstance().pay(1_000);
 
 
     }
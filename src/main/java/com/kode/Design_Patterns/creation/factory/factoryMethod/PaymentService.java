@@ -1,5 +1,12 @@
 package com.kode.Design_Patterns.creation.factory.factoryMethod;
 
+import com.kode.Design_Patterns.creation.factory.MinorUnits;
+
 public interface PaymentService {
-    void pay(Double amount);
+    //amount in minor units, 10.50 -> 1050
+    void pay(long amountMinor);
+
+    default void pay(Double amount) {
+        pay(MinorUnits.of(amount));
+    }
 }
@@ -1,12 +1,13 @@
 package com.kode.Design_Patterns.creation.factory.factoryMethod;
 
-import com.kode.Design_Patterns.creation.factory.simpleFactory.CardPaymentService;
 import com.kode.Design_Patterns.creation.factory.simpleFactory.PaymentService;
-import com.kode.Design_Patterns.creation.factory.simpleFactory.WalletPaymentService;
 
 public class WalletPaymentServiceFactory implements PaymentServiceFactory{
+    //shared instance from the simple factory's dispatch table
+    private static final PaymentService SERVICE = com.kode.Design_Patterns.creation.factory.simpleFactory.PaymentServiceFactory.getInstance("wallet");
+
     @Override
     public PaymentService getInstance() {
-        return new WalletPaymentService();
+        return SERVICE;
     }
 }
@@ -12,7 +12,7 @@ public class Main {
         for(int i=0;i<n;i++){
             System.out.println("Enter payment service: ");
             String name = sc.next();
-            PaymentServiceFactory.getInstance(name).pay(10.0);
+            PaymentServiceFactory.getInstance(name).pay(1_000);
         }
 
     }
@@ -1,17 +1,31 @@
 package com.kode.Design_Patterns.creation.factory.simpleFactory;
 
+import com.kode.Design_Patterns.creation.factory.PaymentBatch;
+import com.kode.Design_Patterns.creation.factory.PaymentDispatchTable;
+
+import java.util.Map;
+
 public abstract class PaymentServiceFactory {
 
+    //services are stateless, one instance each serves every caller (factoryMethod factories included)
+    public static final PaymentDispatchTable<PaymentService> SERVICES = PaymentDispatchTable.of(Map.of(
+            "wallet", new WalletPaymentService(),
+            "card", new CardPaymentService(),
+            "upi", new UPIPaymentService()));
+
     public static PaymentService getInstance(String name){
 
-        if(name.equalsIgnoreCase("wallet"))
-            return new WalletPaymentService();
-        else if (name.equalsIgnoreCase("card"))
-            return new CardPaymentService();
-        else if(name.equalsIgnoreCase("upi"))
-            return new UPIPaymentService();
+        PaymentService service = SERVICES.get(name);
+        if (service != null)
+            return service;
 
         throw new RuntimeException("no service found for "+ name);
 
     }
+
+    //batch workloads: method and amount of every payment are read straight from the batch columns
+    public static void payAll(PaymentBatch batch){
+        for (int i = 0; i < batch.size(); i++)
+            getInstance(batch.method(i)).pay(batch.amount(i));
+    }
 }
@@ -1,8 +1,10 @@
 package com.kode.Design_Patterns.creation.factory.simpleFactory;
 
+import com.kode.Design_Patterns.creation.factory.MinorUnits;
+
 public class WalletPaymentService implements PaymentService{
     @Override
-    public void pay(Double amount) {
-        System.out.println(amount + "  payment done by wallet");
+    public void pay(long amountMinor) {
+        System.out.println(MinorUnits.format(amountMinor) + "  payment done by wallet");
     }
 }
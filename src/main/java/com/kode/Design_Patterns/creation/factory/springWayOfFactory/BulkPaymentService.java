@@ -0,0 +1,93 @@
+package com.kode.Design_Patterns.creation.factory.springWayOfFactory;
+
+import com.kode.Design_Patterns.creation.factory.MinorUnits;
+import com.kode.Design_Patterns.creation.factory.PaymentBatch;
+import com.kode.Design_Patterns.creation.factory.PaymentLedger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+//pays a whole settlement run in one call
+//items are grouped by the service PaymentServiceFactory resolves for them, every group runs as one task on
+//paymentExecutor (groups in parallel, items of a group in order), a failing item never stops the others
+//a group collects its paid items in a PaymentBatch and records it with one ledger append at the end
+//a group paymentExecutor has no room for is not attempted, its items come back failed
+@Service
+public class BulkPaymentService {
+    @Autowired
+    PaymentServiceFactory paymentServiceFactory;
+    @Autowired
+    AsyncTaskExecutor paymentExecutor;
+    @Autowired
+    PaymentLedger paymentLedger;
+
+    //results come back in request order
+    public CompletableFuture<List<PaymentResult>> pay(List<PaymentRequest> payments) {
+        PaymentResult[] results = new PaymentResult[payments.size()];
+        long[] amounts = new long[payments.size()];
+        Map<PaymentService, List<Integer>> groups = new IdentityHashMap<>();
+        for (int i = 0; i < results.length; i++) {
+            PaymentRequest payment = payments.get(i);
+            if (payment == null || payment.method() == null || payment.amount() == null) {
+                results[i] = PaymentResult.failed(i, payment == null ? new PaymentRequest(null, null) : payment,
+                        "method and amount are required");
+                continue;
+            }
+            try {
+                amounts[i] = MinorUnits.of(payment.amount());
+                groups.computeIfAbsent(paymentServiceFactory.getPaymentService(payment.method()), service -> new ArrayList<>()).add(i);
+            } catch (IllegalArgumentException e) {
+                results[i] = PaymentResult.failed(i, payment, e.getMessage());
+            }
+        }
+
+        List<CompletableFuture<Void>> running = new ArrayList<>(groups.size());
+        groups.forEach((service, indexes) -> {
+            try {
+                running.add(payGroup(service, indexes, payments, amounts, results));
+            } catch (RejectedExecutionException e) {
+                for (int index : indexes)
+                    results[index] = PaymentResult.failed(index, payments.get(index), "too many payments in flight, retry later");
+            }
+        });
+        return CompletableFuture.allOf(running.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> Arrays.asList(results));
+    }
+
+    private CompletableFuture<Void> payGroup(PaymentService service, List<Integer> indexes, List<PaymentRequest> payments,
+                                             long[] amounts, PaymentResult[] results) {
+        return CompletableFuture.runAsync(() -> {
+            PaymentBatch paid = new PaymentBatch(indexes.size());
+            for (int index : indexes) {
+                PaymentRequest payment = payments.get(index);
+                try {
+                    service.pay(amounts[index]);
+                    paid.add(index, payment.method().toUpperCase(Locale.ROOT), amounts[index]);
+                } catch (RuntimeException e) {
+                    results[index] = PaymentResult.failed(index, payment, String.valueOf(e.getMessage()));
+                }
+            }
+            String recordError = null;
+            try {
+                if (paid.size() > 0)
+                    paymentLedger.appendBatch(paid);
+            } catch (RuntimeException e) {
+                recordError = String.valueOf(e.getMessage());
+            }
+            for (int i = 0; i < paid.size(); i++) {
+                int index = paid.id(i);
+                results[index] = recordError == null ? PaymentResult.paid(index, payments.get(index))
+                        : PaymentResult.paidNotRecorded(index, payments.get(index), recordError);
+            }
+        }, paymentExecutor);
+    }
+}
@@ -1,12 +1,12 @@
 package com.kode.Design_Patterns.creation.factory.springWayOfFactory;
 
+import com.kode.Design_Patterns.creation.factory.MinorUnits;
 import org.springframework.stereotype.Service;
 
 @Service("CARD")
 public class CardPaymentService implements PaymentService {
     @Override
-    public void pay(Double amount) {
-        System.out.println(amount+ " payment done by card");
-
+    public void pay(long amountMinor) {
+        System.out.println(MinorUnits.format(amountMinor) + " payment done by card");
     }
 }
@@ -0,0 +1,81 @@
+package com.kode.Design_Patterns.creation.factory.springWayOfFactory;
+
+import com.kode.Design_Patterns.DesignPatternsApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+//blocking /payment/blocking vs async /payment against a provider that takes PROVIDER_MILLIS per call
+//tomcat is capped at TOMCAT_THREADS so the blocking model runs out of request threads like a loaded server would
+//run: java ... PaymentEndpointBenchmark [concurrentClients] [requests]
+public class PaymentEndpointBenchmark {
+    private static final int TOMCAT_THREADS = 16;
+    private static final long PROVIDER_MILLIS = 50;
+
+    public static void main(String[] args) throws InterruptedException {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DesignPatternsApplication.class)
+                .properties("server.port=0", "server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "server.tomcat.accept-count=" + clients * 2, "spring.main.banner-mode=off")
+                .initializers(ctx -> ((GenericApplicationContext) ctx).registerBean("SLOW", PaymentService.class,
+                        () -> PaymentEndpointBenchmark::slowProvider))
+                .run();
+        try {
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            run(client, base + "/payment/blocking/SLOW/10.0", clients, requests / 10);
+            run(client, base + "/payment/SLOW/10.0", clients, requests / 10);
+            for (int round = 0; round < 3; round++) {
+                String blocking = run(client, base + "/payment/blocking/SLOW/10.0", clients, requests);
+                String async = run(client, base + "/payment/SLOW/10.0", clients, requests);
+                System.out.println("round " + round + ": blocking " + blocking + " | async " + async);
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void slowProvider(long amountMinor) {
+        try {
+            Thread.sleep(PROVIDER_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //closed loop: clients requests in flight at all times
+    private static String run(HttpClient client, String url, int clients, int requests) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).build();
+        Semaphore inFlight = new Semaphore(clients);
+        long[] latencies = new long[requests];
+        AtomicLong failures = new AtomicLong();
+        CompletableFuture<?>[] calls = new CompletableFuture<?>[requests];
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int slot = i;
+            long sent = System.nanoTime();
+            calls[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                latencies[slot] = System.nanoTime() - sent;
+                if (error != null || response.statusCode() != 200)
+                    failures.incrementAndGet();
+                inFlight.release();
+            });
+        }
+        CompletableFuture.allOf(calls).exceptionally(error -> null).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Arrays.sort(latencies);
+        return String.format("%6.0f req/s, p99 %5.0f ms, %d failed", requests / seconds,
+                latencies[(int) Math.ceil(requests * 0.99) - 1] / 1e6, failures.get());
+    }
+}
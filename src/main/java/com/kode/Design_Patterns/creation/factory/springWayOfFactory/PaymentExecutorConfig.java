@@ -0,0 +1,36 @@
+package com.kode.Design_Patterns.creation.factory.springWayOfFactory;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+//payments run off the tomcat worker
+//  java 21+ -> a virtual thread per payment, a slow provider only parks a cheap virtual thread
+//  older    -> MAX_PLATFORM_PAYMENTS pool threads and a queue of QUEUED_PAYMENTS, a payment that finds both
+//              full is rejected straight away (the endpoints answer 503), the submitting tomcat thread never waits
+@Configuration
+public class PaymentExecutorConfig {
+    static final int MAX_PLATFORM_PAYMENTS = 512;
+    static final int QUEUED_PAYMENTS = 2048;
+
+    @Bean
+    public AsyncTaskExecutor paymentExecutor() {
+        if (Runtime.version().feature() >= 21) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("payment-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("payment-");
+        executor.setCorePoolSize(MAX_PLATFORM_PAYMENTS);
+        executor.setMaxPoolSize(MAX_PLATFORM_PAYMENTS);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setQueueCapacity(QUEUED_PAYMENTS);
+        //payments already taken get to finish on shutdown
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
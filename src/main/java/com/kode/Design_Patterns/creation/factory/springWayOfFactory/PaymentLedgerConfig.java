@@ -0,0 +1,20 @@
+package com.kode.Design_Patterns.creation.factory.springWayOfFactory;
+
+import com.kode.Design_Patterns.creation.factory.PaymentLedger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+//every payment made through /payment, /payment/blocking and /payment/bulk is recorded in this ledger before it is answered
+@Configuration
+public class PaymentLedgerConfig {
+
+    @Bean(destroyMethod = "close")
+    public PaymentLedger paymentLedger(@Value("${payment.ledger.file:${java.io.tmpdir}/payment-ledger.log}") Path file,
+                                       @Value("${payment.ledger.max-batch:256}") int maxBatch) throws IOException {
+        return new PaymentLedger(file, maxBatch);
+    }
+}
@@ -0,0 +1,8 @@
+package com.kode.Design_Patterns.creation.factory.springWayOfFactory;
+
+import java.math.BigDecimal;
+
+//one item of a bulk payment, method is a PaymentServiceFactory name (CARD / UPI / WALLET)
+//amount is read from json as an exact decimal, at most two decimals
+public record PaymentRequest(String method, BigDecimal amount) {
+}
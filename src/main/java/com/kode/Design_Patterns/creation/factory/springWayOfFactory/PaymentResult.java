@@ -0,0 +1,22 @@
+package com.kode.Design_Patterns.creation.factory.springWayOfFactory;
+
+import java.math.BigDecimal;
+
+//outcome of one bulk item, index is its position in the request
+//  paid + recorded     -> done, error is null
+//  paid, not recorded  -> the money moved but the ledger write failed, error says why, must not be retried
+//  not paid            -> error says why, safe to retry
+public record PaymentResult(int index, String method, BigDecimal amount, boolean paid, boolean recorded, String error) {
+
+    static PaymentResult paid(int index, PaymentRequest request) {
+        return new PaymentResult(index, request.method(), request.amount(), true, true, null);
+    }
+
+    static PaymentResult paidNotRecorded(int index, PaymentRequest request, String error) {
+        return new PaymentResult(index, request.method(), request.amount(), true, false, error);
+    }
+
+    static PaymentResult failed(int index, PaymentRequest request, String error) {
+        return new PaymentResult(index, request.method(), request.amount(), false, false, error);
+    }
+}
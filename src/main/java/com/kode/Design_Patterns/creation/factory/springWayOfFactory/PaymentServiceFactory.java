@@ -1,5 +1,6 @@
 package com.kode.Design_Patterns.creation.factory.springWayOfFactory;
 
+import com.kode.Design_Patterns.creation.factory.PaymentDispatchTable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -8,12 +9,16 @@ import java.util.Map;
 @Service
 public class PaymentServiceFactory {
 
+    //Registry way: bean name -> bean, compiled once into a case insensitive table
+    private final PaymentDispatchTable<PaymentService> paymentServices;
+
     @Autowired
-    private Map<String, PaymentService> paymentServiceMap;
-    //Registry way
+    public PaymentServiceFactory(Map<String, PaymentService> paymentServiceMap) {
+        this.paymentServices = PaymentDispatchTable.of(paymentServiceMap);
+    }
 
     public PaymentService getPaymentService(String type) {
-        PaymentService service = paymentServiceMap.get(type);
+        PaymentService service = paymentServices.get(type);
 
         if (service == null) {
             throw new IllegalArgumentException("Unsupported payment type: " + type);
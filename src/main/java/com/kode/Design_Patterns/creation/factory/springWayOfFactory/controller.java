@@ -1,20 +1,84 @@
 package com.kode.Design_Patterns.creation.factory.springWayOfFactory;
 
+import com.kode.Design_Patterns.creation.factory.MinorUnits;
+import com.kode.Design_Patterns.creation.factory.PaymentLedger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 public class controller {
     @Autowired
     PaymentServiceFactory paymentServiceFactory;
+    @Autowired
+    AsyncTaskExecutor paymentExecutor;
+    @Autowired
+    BulkPaymentService bulkPaymentService;
+    @Autowired
+    PaymentLedger paymentLedger;
 
+    //the tomcat thread only resolves the service, the payment runs on paymentExecutor and the
+    //response is written when the future completes, after the payment is durable in the ledger
+    //amount is read as an exact decimal (at most two decimals) straight into minor units
+    //a payment paymentExecutor has no room for is answered 503 without being attempted
     @GetMapping("/payment/{name}/{amount}")
-    public String pay(@PathVariable String name,@PathVariable Double amount){
-        paymentServiceFactory.getPaymentService(name).pay(amount);
-        return "check in console";
+    public CompletableFuture<String> pay(@PathVariable String name,@PathVariable String amount){
+        PaymentService paymentService = paymentServiceFactory.getPaymentService(name);
+        long amountMinor = amountMinor(amount);
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                paymentService.pay(amountMinor);
+                return record(name, amountMinor);
+            }, paymentExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                    new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "too many payments in flight, retry later"));
+        }
+    }
+
+    //body: [{"method":"CARD","amount":10.0}, ...], one result per item in the same order
+    @PostMapping("/payment/bulk")
+    public CompletableFuture<List<PaymentResult>> payBulk(@RequestBody List<PaymentRequest> payments){
+        return bulkPaymentService.pay(payments);
+    }
+
+    //previous model, the tomcat thread is held for the whole payment, kept as the PaymentEndpointBenchmark baseline
+    //records in the ledger like /payment, so both sides of the benchmark pay for the fsync
+    @GetMapping("/payment/blocking/{name}/{amount}")
+    public String payBlocking(@PathVariable String name,@PathVariable String amount){
+        long amountMinor = amountMinor(amount);
+        paymentServiceFactory.getPaymentService(name).pay(amountMinor);
+        return record(name, amountMinor);
+    }
+
+    //the provider has already paid here: a ledger failure is answered as paid, not as an error a client would retry
+    private String record(String name, long amountMinor){
+        try {
+            paymentLedger.append(name.toUpperCase(Locale.ROOT), amountMinor);
+            return "check in console";
+        } catch (RuntimeException e) {
+            return "paid, not recorded: " + e.getMessage();
+        }
+    }
+
+    private static long amountMinor(String amount){
+        try {
+            return MinorUnits.parse(amount);
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 }
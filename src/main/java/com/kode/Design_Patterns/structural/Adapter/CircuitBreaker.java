@@ -0,0 +1,80 @@
+package com.kode.Design_Patterns.structural.Adapter;
+
+import java.time.Duration;
+
+//takes an unhealthy provider out of rotation
+//  CLOSED    -> calls pass, an EWMA of failures is kept, at errorRateThreshold (after minCalls calls) -> OPEN
+//  OPEN      -> calls are refused for openFor, then one trial call is let through -> HALF_OPEN
+//  HALF_OPEN -> the trial decides: success -> CLOSED with a clean error rate, failure -> OPEN again
+public class CircuitBreaker {
+    private static final double ALPHA = 0.2;
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final double errorRateThreshold;
+    private final int minCalls;
+    private final long openNanos;
+    private State state = State.CLOSED;
+    private double errorRate;
+    private long calls;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(double errorRateThreshold, int minCalls, Duration openFor) {
+        this.errorRateThreshold = errorRateThreshold;
+        this.minCalls = minCalls;
+        this.openNanos = openFor.toNanos();
+    }
+
+    //claims the call, in HALF_OPEN only one caller gets true
+    public synchronized boolean allowRequest() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> {
+                if (System.nanoTime() - openedAt < openNanos)
+                    yield false;
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                yield true;
+            }
+            case HALF_OPEN -> !trialInFlight && (trialInFlight = true);
+        };
+    }
+
+    //would allowRequest() let a call through right now, without claiming it
+    public synchronized boolean isAvailable() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> System.nanoTime() - openedAt >= openNanos;
+            case HALF_OPEN -> !trialInFlight;
+        };
+    }
+
+    public synchronized void onSuccess() {
+        calls++;
+        errorRate = (1 - ALPHA) * errorRate;
+        if (state == State.HALF_OPEN) {
+            state = State.CLOSED;
+            errorRate = 0;
+            trialInFlight = false;
+        }
+    }
+
+    public synchronized void onFailure() {
+        calls++;
+        errorRate = (1 - ALPHA) * errorRate + ALPHA;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && calls >= minCalls && errorRate >= errorRateThreshold)) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            trialInFlight = false;
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public synchronized double errorRate() {
+        return errorRate;
+    }
+}
@@ -0,0 +1,114 @@
+package com.kode.Design_Patterns.structural.Adapter;
+
+import com.kode.Design_Patterns.creation.factory.MinorUnits;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+//payment id -> result of the first call with that id
+//  first call            -> runs the payment, duplicates arriving meanwhile wait on the same future
+//  later call, within ttl -> gets the stored result, the provider is not called again
+//  failed call           -> not stored, a retry runs the payment again
+//completed entries expire ttl after they completed, beyond maxEntries the oldest completed ones go first
+public class IdempotencyStore {
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+    //completed entries in completion order, which is also expiry order
+    private final Queue<Entry> completed = new ConcurrentLinkedQueue<>();
+    //ConcurrentLinkedQueue.size() walks the whole queue, eviction checks this instead
+    private final AtomicInteger completedCount = new AtomicInteger();
+
+    public IdempotencyStore(int maxEntries, Duration ttl) {
+        if (maxEntries <= 0)
+            throw new IllegalArgumentException("max entries must be positive: " + maxEntries);
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public String execute(int id, long amountMinor, Supplier<String> payment) {
+        while (true) {
+            Entry fresh = new Entry(id, amountMinor);
+            Entry entry = entries.putIfAbsent(id, fresh);
+            if (entry == null)
+                return run(fresh, payment);
+            long now = System.nanoTime();
+            if (entry.expired(now)) {
+                evict(now);
+                entries.remove(id, entry);
+                continue;
+            }
+            if (entry.amountMinor != amountMinor)
+                throw new IllegalArgumentException("payment id " + id + " was used for amount " + MinorUnits.format(entry.amountMinor)
+                        + ", not " + MinorUnits.format(amountMinor));
+            return join(entry.result);
+        }
+    }
+
+    //results currently held, in flight included
+    public int size() {
+        return entries.size();
+    }
+
+    private String run(Entry entry, Supplier<String> payment) {
+        try {
+            String result = payment.get();
+            entry.completedAt = System.nanoTime();
+            entry.result.complete(result);
+            completed.add(entry);
+            completedCount.incrementAndGet();
+            evict(entry.completedAt);
+            return result;
+        } catch (RuntimeException e) {
+            entries.remove(entry.id, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void evict(long now) {
+        Entry oldest;
+        while ((oldest = completed.peek()) != null && (oldest.expired(now) || completedCount.get() > maxEntries)) {
+            //the head is matched first, so removing it is constant time
+            if (completed.remove(oldest)) {
+                completedCount.decrementAndGet();
+                entries.remove(oldest.id, oldest);
+            }
+        }
+    }
+
+    private static String join(CompletableFuture<String> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    private final class Entry {
+        final int id;
+        final long amountMinor;
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        //0 while in flight, in flight entries never expire
+        volatile long completedAt;
+
+        Entry(int id, long amountMinor) {
+            this.id = id;
+            this.amountMinor = amountMinor;
+        }
+
+        boolean expired(long now) {
+            long completedAt = this.completedAt;
+            return completedAt != 0 && now - completedAt > ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.kode.Design_Patterns.structural.Adapter;
+
+import java.time.Duration;
+
+//guards any WalmartPayment against duplicate ids, a client retry gets the original result
+//  new IdempotentPayment(new RazorAdapter(), 100_000, Duration.ofHours(24))
+public class IdempotentPayment implements WalmartPayment {
+    private final WalmartPayment payment;
+    private final IdempotencyStore store;
+
+    public IdempotentPayment(WalmartPayment payment, int maxEntries, Duration ttl) {
+        this(payment, new IdempotencyStore(maxEntries, ttl));
+    }
+
+    public IdempotentPayment(WalmartPayment payment, IdempotencyStore store) {
+        this.payment = payment;
+        this.store = store;
+    }
+
+    @Override
+    public String doPayment(int id, long amountMinor) {
+        return store.execute(id, amountMinor, () -> payment.doPayment(id, amountMinor));
+    }
+}
@@ -1,13 +1,45 @@
 package com.kode.Design_Patterns.structural.Adapter;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public class Main {
 
     public static void main(String[] args) {
         // need to make a payment
 
         WalmartPayment walmartPayment = new RazorAdapter();
-        System.out.println(walmartPayment.doPayment(1,23.1));
+        System.out.println(walmartPayment.doPayment(1,2_310));
         WalmartPayment walmartPayment1 = new PayUAdapter();
-        System.out.println(walmartPayment1.doPayment(2,345.3));
+        System.out.println(walmartPayment1.doPayment(2,34_530));
+
+        //a retried id gets the first result, the provider is called once
+        WalmartPayment idempotent = new IdempotentPayment(new RazorAdapter(), 10_000, Duration.ofMinutes(10));
+        System.out.println(idempotent.doPayment(3,5_000));
+        System.out.println(idempotent.doPayment(3,5_000));
+
+        //routing: payments go to the fastest healthy provider, a failing one is taken out by its circuit breaker
+        StubProvider razor = new StubProvider("Razor", Duration.ofMillis(2), Duration.ofMillis(40), 0.02, 0.0);
+        StubProvider payU = new StubProvider("PayU", Duration.ofMillis(6), Duration.ofMillis(6), 0.0, 0.0);
+        Map<String, WalmartPayment> providers = new LinkedHashMap<>();
+        providers.put("Razor", razor);
+        providers.put("PayU", payU);
+        //no hedging: the stub providers do not deduplicate by id, a hedged call would charge twice
+        try (RoutingPayment routing = new RoutingPayment(providers, new IdempotencyStore(10_000, Duration.ofMinutes(10)),
+                null, 0.5, Duration.ofSeconds(1))) {
+            for (int id = 100; id < 300; id++)
+                routing.doPayment(id, 1_000);
+            System.out.println(routing.stats());
+            razor.setErrorRate(1.0);
+            for (int id = 300; id < 350; id++) {
+                try {
+                    routing.doPayment(id, 1_000);
+                } catch (IllegalStateException e) {
+                    System.out.println(e.getMessage());
+                }
+            }
+            System.out.println(routing.stats());
+        }
     }
 }
@@ -1,8 +1,14 @@
 package com.kode.Design_Patterns.structural.Adapter;
 
+import com.kode.Design_Patterns.creation.factory.MinorUnits;
+
 public class PayUAdapter implements WalmartPayment{
+    //the client is stateless, one instance serves every payment
+    private final PayUPayment payUPayment = new PayUPayment();
+
     @Override
-    public String doPayment(int id, Double amount) {
-        return new PayUPayment().processPayment(id,amount);
+    //the PayU client only takes a floating point amount, minor units are converted at this edge
+    public String doPayment(int id, long amountMinor) {
+        return payUPayment.processPayment(id,MinorUnits.toDouble(amountMinor));
     }
 }
@@ -1,8 +1,14 @@
 package com.kode.Design_Patterns.structural.Adapter;
 
+import com.kode.Design_Patterns.creation.factory.MinorUnits;
+
 public class RazorAdapter implements WalmartPayment{
+    //the client is stateless, one instance serves every payment
+    private final RazorPayPayment razorPayPayment = new RazorPayPayment();
+
     @Override
-    public String doPayment(int id, Double amount) {
-        return new RazorPayPayment().pay(id,amount);
+    //the Razor client only takes a floating point amount, minor units are converted at this edge
+    public String doPayment(int id, long amountMinor) {
+        return razorPayPayment.pay(id,MinorUnits.toDouble(amountMinor));
     }
 }
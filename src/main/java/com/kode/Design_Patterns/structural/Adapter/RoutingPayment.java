@@ -0,0 +1,189 @@
+package com.kode.Design_Patterns.structural.Adapter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+//WalmartPayment that picks the provider per payment instead of a fixed adapter
+//  every provider keeps an EWMA of its latency and a CircuitBreaker fed with its failures
+//  a failure counts as FAILURE_PENALTY times the current estimate, so a provider that fails fast does not look fast
+//  a payment goes to the healthy provider with the lowest latency, a provider nobody measured yet goes first
+//  every PROBE_EVERY payments go to the provider used least recently, so estimates of the others stay fresh
+//every payment runs through the IdempotencyStore, a client retry of an id never reaches a provider twice
+//hedging (optional): when the chosen provider has not answered after hedgeAfter, the same id is sent to the same
+//provider once more and the first success wins
+//  only for providers whose deduplicatesById() is true, they charge an id once however often it arrives
+//  never to another provider: the local store wraps the whole route and cannot stop two providers both charging
+public class RoutingPayment implements WalmartPayment, AutoCloseable {
+    private static final double ALPHA = 0.2;
+    private static final int PROBE_EVERY = 20;
+    private static final double FAILURE_PENALTY = 4;
+
+    private final List<Provider> providers = new ArrayList<>();
+    private final IdempotencyStore store;
+    private final long hedgeNanos;
+    private final ExecutorService hedgeExecutor;
+    private final AtomicLong payments = new AtomicLong();
+
+    public RoutingPayment(Map<String, WalmartPayment> providers, IdempotencyStore store) {
+        this(providers, store, null, 0.5, Duration.ofSeconds(5));
+    }
+
+    //hedgeAfter null -> no hedging
+    public RoutingPayment(Map<String, WalmartPayment> providers, IdempotencyStore store, Duration hedgeAfter,
+                          double errorRateThreshold, Duration openFor) {
+        if (providers.isEmpty())
+            throw new IllegalArgumentException("at least one payment provider is required");
+        providers.forEach((name, payment) ->
+                this.providers.add(new Provider(name, payment, new CircuitBreaker(errorRateThreshold, 10, openFor))));
+        this.store = store;
+        this.hedgeNanos = hedgeAfter == null ? -1 : hedgeAfter.toNanos();
+        this.hedgeExecutor = hedgeAfter == null ? null : Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "payment-hedge");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public String doPayment(int id, long amountMinor) {
+        return store.execute(id, amountMinor, () -> route(id, amountMinor));
+    }
+
+    public Map<String, ProviderStats> stats() {
+        Map<String, ProviderStats> stats = new LinkedHashMap<>();
+        for (Provider provider : providers)
+            stats.put(provider.name, new ProviderStats(provider.latencyNanos / 1e6, provider.breaker.errorRate(),
+                    provider.breaker.state(), provider.calls.get()));
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        if (hedgeExecutor != null)
+            hedgeExecutor.shutdownNow();
+    }
+
+    private String route(int id, long amount) {
+        Provider primary = choose();
+        if (primary == null)
+            throw new IllegalStateException("no healthy payment provider for id " + id);
+        if (hedgeExecutor == null || !primary.payment.deduplicatesById())
+            return primary.pay(id, amount);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> primary.pay(id, amount), hedgeExecutor);
+        try {
+            return first.get(hedgeNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (!primary.breaker.allowRequest())
+                return join(first);
+            CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> primary.pay(id, amount), hedgeExecutor);
+            return join(firstSuccess(first, second));
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while paying id " + id, e);
+        }
+    }
+
+    //lowest latency among providers whose breaker lets a call through, or the probe pick
+    private Provider choose() {
+        List<Provider> candidates = new ArrayList<>(providers.size());
+        for (Provider provider : providers)
+            if (provider.breaker.isAvailable())
+                candidates.add(provider);
+        if (payments.incrementAndGet() % PROBE_EVERY == 0)
+            candidates.sort(Comparator.comparingLong(provider -> provider.lastCall));
+        else
+            candidates.sort(Comparator.comparingDouble(provider -> provider.latencyNanos));
+        for (Provider candidate : candidates)
+            if (candidate.breaker.allowRequest())
+                return candidate;
+        return null;
+    }
+
+    private static CompletableFuture<String> firstSuccess(CompletableFuture<String> first, CompletableFuture<String> second) {
+        CompletableFuture<String> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<String> call : List.of(first, second)) {
+            call.whenComplete((result, error) -> {
+                if (error == null)
+                    winner.complete(result);
+                else if (failures.incrementAndGet() == 2)
+                    winner.completeExceptionally(error);
+            });
+        }
+        return winner;
+    }
+
+    private static String join(CompletableFuture<String> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null)
+            error = error.getCause();
+        return error instanceof RuntimeException runtime ? runtime : new IllegalStateException(error);
+    }
+
+    private static final class Provider {
+        final String name;
+        final WalmartPayment payment;
+        final CircuitBreaker breaker;
+        final AtomicLong calls = new AtomicLong();
+        volatile double latencyNanos;
+        volatile long lastCall;
+
+        Provider(String name, WalmartPayment payment, CircuitBreaker breaker) {
+            this.name = name;
+            this.payment = payment;
+            this.breaker = breaker;
+        }
+
+        String pay(int id, long amount) {
+            calls.incrementAndGet();
+            long start = System.nanoTime();
+            lastCall = start;
+            try {
+                String result = payment.doPayment(id, amount);
+                recordLatency(System.nanoTime() - start);
+                breaker.onSuccess();
+                return result;
+            } catch (RuntimeException e) {
+                recordFailure(System.nanoTime() - start);
+                breaker.onFailure();
+                throw e;
+            }
+        }
+
+        private synchronized void recordLatency(double nanos) {
+            latencyNanos = latencyNanos == 0 ? nanos : (1 - ALPHA) * latencyNanos + ALPHA * nanos;
+        }
+
+        //a run of fast failures multiplies the estimate, a single one fades out like any slow call
+        private synchronized void recordFailure(long nanos) {
+            double base = latencyNanos == 0 ? nanos : latencyNanos;
+            recordLatency(Math.max(nanos, FAILURE_PENALTY * base));
+        }
+    }
+
+    public record ProviderStats(double latencyMillis, double errorRate, CircuitBreaker.State state, long calls) {
+    }
+}
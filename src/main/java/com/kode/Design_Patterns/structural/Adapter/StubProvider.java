@@ -0,0 +1,47 @@
+package com.kode.Design_Patterns.structural.Adapter;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+//local stand in for a payment gateway
+//every call takes typical latency, with tailProbability it takes tail latency instead (a latency spike),
+//with errorRate it throws after waiting
+public class StubProvider implements WalmartPayment {
+    private final String name;
+    private final long typicalNanos;
+    private final long tailNanos;
+    private final double tailProbability;
+    private volatile double errorRate;
+
+    public StubProvider(String name, Duration typical, Duration tail, double tailProbability, double errorRate) {
+        this.name = name;
+        this.typicalNanos = typical.toNanos();
+        this.tailNanos = tail.toNanos();
+        this.tailProbability = tailProbability;
+        this.errorRate = errorRate;
+    }
+
+    @Override
+    public String doPayment(int id, long amountMinor) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long latency = random.nextDouble() < tailProbability ? tailNanos : typicalNanos;
+        //+-20% jitter
+        sleep(latency + (long) (latency * (random.nextDouble() - 0.5) * 0.4));
+        if (random.nextDouble() < errorRate)
+            throw new IllegalStateException(name + " failed payment for id " + id);
+        return name + " Payment done for id " + id;
+    }
+
+    //lets a demo break and heal the provider while traffic is running
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    private static void sleep(long nanos) {
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,6 +1,28 @@
 package com.kode.Design_Patterns.structural.Adapter;
 
+import com.kode.Design_Patterns.creation.factory.MinorUnits;
+import com.kode.Design_Patterns.creation.factory.PaymentBatch;
+
 public interface WalmartPayment {
 
-    String doPayment(int id, Double amount );
+    //amount in minor units, 23.10 -> 2310
+    String doPayment(int id, long amountMinor);
+
+    //true when the provider itself treats id as an idempotency key: a second call with the same id returns the
+    //first result instead of charging again, RoutingPayment only hedges to providers that say so
+    default boolean deduplicatesById(){
+        return false;
+    }
+
+    default String doPayment(int id, Double amount ){
+        return doPayment(id, MinorUnits.of(amount));
+    }
+
+    //batch workloads: ids and amounts are read straight from the batch columns, results[i] belongs to payment i
+    default String[] doPayments(PaymentBatch batch){
+        String[] results = new String[batch.size()];
+        for (int i = 0; i < results.length; i++)
+            results[i] = doPayment(batch.id(i), batch.amount(i));
+        return results;
+    }
 }
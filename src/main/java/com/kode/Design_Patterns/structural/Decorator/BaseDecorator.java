@@ -8,4 +8,19 @@ import lombok.AllArgsConstructor;
 public abstract  class BaseDecorator implements DataSource{
     protected DataSource nextLayer;
 
+    @Override
+    public long size() {
+        return nextLayer.size();
+    }
+
+    @Override
+    public void flush() {
+        nextLayer.flush();
+    }
+
+    @Override
+    public void close() {
+        flush();
+        nextLayer.close();
+    }
 }
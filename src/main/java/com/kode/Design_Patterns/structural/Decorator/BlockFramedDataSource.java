@@ -0,0 +1,268 @@
+package com.kode.Design_Patterns.structural.Decorator;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+//base for decorators that transform the stream in blocks (compression, encryption)
+//the stream is cut into raw blocks and every block goes to the next layer as
+//  [tag:1][rawLength:4][storedLength:4][stored bytes]
+//a block index (rebuilt from the headers when the layer is opened) maps a stream
+//position to its block, so a read of a byte range only decodes the blocks it touches
+//blocks are independent, writes encode up to batchBlocks blocks at a time and reads spanning
+//several blocks decode them together, runBlocks decides whether a batch runs sequentially or in parallel
+//the last block written by a flush is passed to encodeBlock as the end of the stream, so a layer that
+//authenticates its blocks can tell a stream that was cut short from one that ended at a flush
+//not thread safe
+public abstract class BlockFramedDataSource extends BaseDecorator {
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+    static final int HEADER_SIZE = 9;
+
+    protected final int blockSize;
+    protected final int batchBlocks;
+
+    //raw bytes of the blocks being filled by write()
+    private final byte[] pending;
+    private int pendingFill;
+
+    //block index
+    private int blockCount;
+    private long[] rawOffsets = new long[16];
+    private long[] storedOffsets = new long[16];
+    private int[] rawLengths = new int[16];
+    private int[] storedLengths = new int[16];
+    private byte[] tags = new byte[16];
+    private long rawSize;
+    private long storedSize;
+
+    private ByteBuffer storedBuffer;
+    private final int[] batchStoredLengths;
+    private final byte[] batchTags;
+    private byte[] batchRaw = new byte[0];
+    private byte[] decoded = new byte[0];
+    private int decodedBlock = -1;
+
+    protected BlockFramedDataSource(DataSource nextLayer, int blockSize) {
+        this(nextLayer, blockSize, 1);
+    }
+
+    protected BlockFramedDataSource(DataSource nextLayer, int blockSize, int batchBlocks) {
+        super(nextLayer);
+        if (blockSize <= 0 || batchBlocks <= 0)
+            throw new IllegalArgumentException("block size and batch must be positive: " + blockSize + ", " + batchBlocks);
+        this.blockSize = blockSize;
+        this.batchBlocks = batchBlocks;
+        this.pending = new byte[Math.multiplyExact(blockSize, batchBlocks)];
+        this.batchStoredLengths = new int[batchBlocks];
+        this.batchTags = new byte[batchBlocks];
+        loadIndex();
+    }
+
+    //encode rawLength bytes of raw from rawOffset into stored (written from its current position), returns the block tag
+    //last is set for the final block of a flush, the stream ends there unless more is appended later
+    protected abstract byte encodeBlock(long blockNo, boolean last, byte[] raw, int rawOffset, int rawLength, ByteBuffer stored);
+
+    protected abstract void decodeBlock(long blockNo, byte tag, byte[] stored, int storedOffset, int storedLength,
+                                        byte[] raw, int rawOffset, int rawLength);
+
+    //upper bound of the stored size for a block of rawLength bytes
+    protected abstract int maxStoredLength(int rawLength);
+
+    //run task for block 0..count-1 of a batch, sequential by default
+    protected void runBlocks(int count, IntConsumer task) {
+        for (int i = 0; i < count; i++)
+            task.accept(i);
+    }
+
+    @Override
+    public void write(ByteBuffer chunk) {
+        while (chunk.hasRemaining()) {
+            //a full batch is only encoded once more bytes follow it, so flush() always has a last block to mark
+            if (pendingFill == pending.length)
+                commitPending(false);
+            int n = Math.min(chunk.remaining(), pending.length - pendingFill);
+            chunk.get(pending, pendingFill, n);
+            pendingFill += n;
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (pendingFill > 0)
+            commitPending(true);
+        nextLayer.flush();
+    }
+
+    @Override
+    public int read(long position, ByteBuffer dst) {
+        long size = size();
+        if (position >= size)
+            return -1;
+        int total = 0;
+        while (dst.hasRemaining() && position < size) {
+            int n;
+            if (position >= rawSize) {
+                int offset = (int) (position - rawSize);
+                n = Math.min(dst.remaining(), pendingFill - offset);
+                dst.put(pending, offset, n);
+            } else {
+                int block = blockFor(position);
+                int last = blockFor(Math.min(position + dst.remaining(), rawSize) - 1);
+                if (batchBlocks > 1 && last > block && block != decodedBlock) {
+                    n = readBatch(block, Math.min(last, block + batchBlocks - 1), position, dst);
+                } else {
+                    byte[] raw = decode(block);
+                    int offset = (int) (position - rawOffsets[block]);
+                    n = Math.min(dst.remaining(), rawLengths[block] - offset);
+                    dst.put(raw, offset, n);
+                }
+            }
+            position += n;
+            total += n;
+        }
+        return total;
+    }
+
+    @Override
+    public long size() {
+        return rawSize + pendingFill;
+    }
+
+    public int blockCount() {
+        return blockCount;
+    }
+
+    //bytes this layer has handed to the next layer
+    public long storedSize() {
+        return storedSize;
+    }
+
+    //tag of a block already in the index, lets a subclass check how the stream ends when it is opened
+    protected byte blockTag(int block) {
+        return tags[block];
+    }
+
+    //stored bytes of a block already in the index from offset on, lets a subclass read a header it keeps in a block
+    protected void readStored(int block, int offset, ByteBuffer dst) {
+        if (offset < 0 || offset + dst.remaining() > storedLengths[block])
+            throw new IllegalArgumentException("block " + block + " holds " + storedLengths[block] + " stored bytes");
+        readFully(storedOffsets[block] + HEADER_SIZE + offset, dst);
+    }
+
+    private void commitPending(boolean endOfStream) {
+        int count = (pendingFill + blockSize - 1) / blockSize;
+        int slot = HEADER_SIZE + maxStoredLength(blockSize);
+        if (storedBuffer == null || storedBuffer.capacity() < slot * batchBlocks)
+            storedBuffer = ByteBuffer.allocate(slot * batchBlocks);
+        byte[] stored = storedBuffer.array();
+        int[] storedLength = batchStoredLengths;
+        byte[] tag = batchTags;
+        long firstBlock = blockCount;
+        runBlocks(count, i -> {
+            int rawLength = Math.min(blockSize, pendingFill - i * blockSize);
+            ByteBuffer out = ByteBuffer.wrap(stored, i * slot, slot).slice();
+            out.position(HEADER_SIZE);
+            tag[i] = encodeBlock(firstBlock + i, endOfStream && i == count - 1, pending, i * blockSize, rawLength, out);
+            storedLength[i] = out.position() - HEADER_SIZE;
+            out.put(0, tag[i]).putInt(1, rawLength).putInt(5, storedLength[i]);
+        });
+        for (int i = 0; i < count; i++) {
+            nextLayer.write(ByteBuffer.wrap(stored, i * slot, HEADER_SIZE + storedLength[i]));
+            addBlock(tag[i], Math.min(blockSize, pendingFill - i * blockSize), storedLength[i]);
+        }
+        pendingFill = 0;
+    }
+
+    private void addBlock(byte tag, int rawLength, int storedLength) {
+        if (blockCount == rawOffsets.length) {
+            int grown = blockCount * 2;
+            rawOffsets = Arrays.copyOf(rawOffsets, grown);
+            storedOffsets = Arrays.copyOf(storedOffsets, grown);
+            rawLengths = Arrays.copyOf(rawLengths, grown);
+            storedLengths = Arrays.copyOf(storedLengths, grown);
+            tags = Arrays.copyOf(tags, grown);
+        }
+        rawOffsets[blockCount] = rawSize;
+        storedOffsets[blockCount] = storedSize;
+        rawLengths[blockCount] = rawLength;
+        storedLengths[blockCount] = storedLength;
+        tags[blockCount] = tag;
+        blockCount++;
+        rawSize += rawLength;
+        storedSize += HEADER_SIZE + storedLength;
+    }
+
+    //walk the headers already in the next layer, an incomplete block at the tail is ignored
+    private void loadIndex() {
+        long available = nextLayer.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (storedSize + HEADER_SIZE <= available) {
+            header.clear();
+            readFully(storedSize, header);
+            int rawLength = header.getInt(1);
+            int storedLength = header.getInt(5);
+            if (rawLength <= 0 || storedLength < 0 || storedSize + HEADER_SIZE + storedLength > available)
+                break;
+            addBlock(header.get(0), rawLength, storedLength);
+        }
+    }
+
+    private int blockFor(long position) {
+        int i = Arrays.binarySearch(rawOffsets, 0, blockCount, position);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    private byte[] decode(int block) {
+        if (block == decodedBlock)
+            return decoded;
+        int storedLength = storedLengths[block];
+        ByteBuffer in = storedBuffer(storedLength);
+        in.limit(storedLength);
+        readFully(storedOffsets[block] + HEADER_SIZE, in);
+        if (decoded.length < rawLengths[block])
+            decoded = new byte[Math.max(rawLengths[block], blockSize)];
+        decodedBlock = -1;
+        decodeBlock(block, tags[block], in.array(), 0, storedLength, decoded, 0, rawLengths[block]);
+        decodedBlock = block;
+        return decoded;
+    }
+
+    //stored blocks first..last are contiguous in the next layer: one read, then decode them as a batch
+    private int readBatch(int first, int last, long position, ByteBuffer dst) {
+        long storedStart = storedOffsets[first];
+        int storedLength = (int) (storedOffsets[last] + HEADER_SIZE + storedLengths[last] - storedStart);
+        ByteBuffer in = storedBuffer(storedLength);
+        in.limit(storedLength);
+        readFully(storedStart, in);
+        long rawStart = rawOffsets[first];
+        int rawLength = (int) (rawOffsets[last] + rawLengths[last] - rawStart);
+        if (batchRaw.length < rawLength)
+            batchRaw = new byte[Math.max(rawLength, pending.length)];
+        byte[] raw = batchRaw;
+        byte[] stored = in.array();
+        runBlocks(last - first + 1, i -> {
+            int block = first + i;
+            decodeBlock(block, tags[block], stored, (int) (storedOffsets[block] - storedStart) + HEADER_SIZE, storedLengths[block],
+                    raw, (int) (rawOffsets[block] - rawStart), rawLengths[block]);
+        });
+        int offset = (int) (position - rawStart);
+        int n = Math.min(dst.remaining(), rawLength - offset);
+        dst.put(raw, offset, n);
+        return n;
+    }
+
+    private ByteBuffer storedBuffer(int capacity) {
+        if (storedBuffer == null || storedBuffer.capacity() < capacity)
+            storedBuffer = ByteBuffer.allocate(Math.max(capacity, (HEADER_SIZE + maxStoredLength(blockSize)) * batchBlocks));
+        return storedBuffer.clear();
+    }
+
+    private void readFully(long position, ByteBuffer dst) {
+        while (dst.hasRemaining()) {
+            int n = nextLayer.read(position, dst);
+            if (n <= 0)
+                throw new IllegalStateException("truncated block at " + position);
+            position += n;
+        }
+    }
+}
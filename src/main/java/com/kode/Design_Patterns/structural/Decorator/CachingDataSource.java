@@ -0,0 +1,98 @@
+package com.kode.Design_Patterns.structural.Decorator;
+
+import java.nio.ByteBuffer;
+
+//read cache that can sit anywhere in the chain, it keeps the bytes coming out of the next layer
+//in fixed size pages, e.g. above compression / encryption a hot page skips decompress + decrypt
+//pages are bounded by WTinyLfuCache, a write through this layer invalidates the pages it touches
+//writes that bypass this layer (straight to a lower layer) are not seen
+//thread safe, hits never touch the next layer, misses and writes are serialized on ioLock
+public class CachingDataSource extends BaseDecorator {
+    public static final int DEFAULT_PAGE_SIZE = 64 * 1024;
+
+    private final int pageSize;
+    private final WTinyLfuCache<Long, byte[]> cache;
+    private final Object ioLock = new Object();
+    private volatile long size;
+
+    public CachingDataSource(DataSource nextLayer, long maxBytes) {
+        this(nextLayer, maxBytes, DEFAULT_PAGE_SIZE);
+    }
+
+    public CachingDataSource(DataSource nextLayer, long maxBytes, int pageSize) {
+        super(nextLayer);
+        if (pageSize <= 0)
+            throw new IllegalArgumentException("page size must be positive: " + pageSize);
+        this.pageSize = pageSize;
+        this.cache = new WTinyLfuCache<>((int) Math.max(1, Math.min(Integer.MAX_VALUE, maxBytes / pageSize)));
+        this.size = nextLayer.size();
+    }
+
+    @Override
+    public int read(long position, ByteBuffer dst) {
+        if (position >= size)
+            return -1;
+        int total = 0;
+        while (dst.hasRemaining() && position < size) {
+            long page = position / pageSize;
+            byte[] data = cache.get(page);
+            if (data == null)
+                data = load(page);
+            int offset = (int) (position - page * pageSize);
+            if (offset >= data.length)
+                break;
+            int n = Math.min(dst.remaining(), data.length - offset);
+            dst.put(data, offset, n);
+            position += n;
+            total += n;
+        }
+        return total;
+    }
+
+    @Override
+    public void write(ByteBuffer chunk) {
+        synchronized (ioLock) {
+            long before = size;
+            nextLayer.write(chunk);
+            size = nextLayer.size();
+            //appending can only change the partial page at the old end, later pages were never cached
+            for (long page = before / pageSize; page <= (size - 1) / pageSize; page++)
+                cache.invalidate(page);
+        }
+    }
+
+    @Override
+    public void flush() {
+        synchronized (ioLock) {
+            nextLayer.flush();
+            size = nextLayer.size();
+        }
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    public WTinyLfuCache.Stats stats() {
+        return cache.stats();
+    }
+
+    //concurrent misses on the same page queue up on ioLock, the re-check lets only the first one decode it
+    private byte[] load(long page) {
+        synchronized (ioLock) {
+            byte[] cached = cache.peek(page);
+            if (cached != null)
+                return cached;
+            long start = page * pageSize;
+            byte[] data = new byte[(int) Math.min(pageSize, size - start)];
+            ByteBuffer in = ByteBuffer.wrap(data);
+            while (in.hasRemaining()) {
+                if (nextLayer.read(start + in.position(), in) <= 0)
+                    throw new IllegalStateException("next layer ended before page " + page);
+            }
+            cache.put(page, data);
+            return data;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.kode.Design_Patterns.structural.Decorator;
+
+//strategy for the block compression used by CompressionDataSource
+//id is written in every block header, so a stream can be read back whatever codec the reader is configured with
+public interface CompressionCodec {
+    byte id();
+
+    int maxCompressedLength(int rawLength);
+
+    //returns compressed length written to dst from dstOffset
+    int compress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset);
+
+    void decompress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset, int rawLength);
+
+    static CompressionCodec forId(byte id) {
+        switch (id) {
+            case DeflateCodec.ID:
+                return new DeflateCodec();
+            case LzCodec.ID:
+                return new LzCodec();
+            default:
+                throw new IllegalArgumentException("unknown compression codec " + id);
+        }
+    }
+}
@@ -1,21 +1,55 @@
 package com.kode.Design_Patterns.structural.Decorator;
 
+import java.nio.ByteBuffer;
+
 //step 4: concerete decorator
-public class CompressionDataSource extends BaseDecorator{
+//block compression with a pluggable codec, blocks that do not shrink are stored raw
+public class CompressionDataSource extends BlockFramedDataSource{
+    static final byte STORED = 0;
+
+    private final CompressionCodec codec;
+    private final CompressionCodec[] decoders = new CompressionCodec[256];
+
     public CompressionDataSource(DataSource nextLayer) {
-        super(nextLayer);
+        this(nextLayer, new LzCodec());
+    }
+
+    public CompressionDataSource(DataSource nextLayer, CompressionCodec codec) {
+        this(nextLayer, codec, DEFAULT_BLOCK_SIZE);
+    }
+
+    public CompressionDataSource(DataSource nextLayer, CompressionCodec codec, int blockSize) {
+        super(nextLayer, blockSize);
+        this.codec = codec;
+        decoders[codec.id() & 0xFF] = codec;
+    }
+
+    @Override
+    protected byte encodeBlock(long blockNo, boolean last, byte[] raw, int rawOffset, int rawLength, ByteBuffer stored) {
+        int compressed = codec.compress(raw, rawOffset, rawLength, stored.array(), stored.arrayOffset() + stored.position());
+        if (compressed >= rawLength) {
+            stored.put(raw, rawOffset, rawLength);
+            return STORED;
+        }
+        stored.position(stored.position() + compressed);
+        return codec.id();
     }
 
     @Override
-    public String read() {
-        String value = nextLayer.read();
-        return value+"_comp";
+    protected void decodeBlock(long blockNo, byte tag, byte[] stored, int storedOffset, int storedLength,
+                               byte[] raw, int rawOffset, int rawLength) {
+        if (tag == STORED) {
+            System.arraycopy(stored, storedOffset, raw, rawOffset, rawLength);
+            return;
+        }
+        CompressionCodec decoder = decoders[tag & 0xFF];
+        if (decoder == null)
+            decoder = decoders[tag & 0xFF] = CompressionCodec.forId(tag);
+        decoder.decompress(stored, storedOffset, storedLength, raw, rawOffset, rawLength);
     }
 
     @Override
-    public void write(String value) {
-        System.out.println(" CompressionDataSource "+ value);
-        value=value+"_comp";
-        nextLayer.write(value);
+    protected int maxStoredLength(int rawLength) {
+        return Math.max(rawLength, codec.maxCompressedLength(rawLength));
     }
 }
@@ -1,6 +1,83 @@
 package com.kode.Design_Patterns.structural.Decorator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
 //step1 create a product interface
-public interface DataSource {
-    String read();
-    void write(String value);
+public interface DataSource extends AutoCloseable {
+    //chunk size used when a whole channel is pushed / pulled through the chain
+    int CHUNK_SIZE = 64 * 1024;
+
+    //whole payload as text, convenience for small values
+    default String read() {
+        ByteBuffer all = ByteBuffer.allocate(Math.toIntExact(size()));
+        while (all.hasRemaining() && read(all.position(), all) > 0) {
+        }
+        return new String(all.array(), 0, all.position(), StandardCharsets.UTF_8);
+    }
+
+    default void write(String value) {
+        write(ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8)));
+        flush();
+    }
+
+    //streaming variant: payload moves through the chain one chunk at a time,
+    //so memory stays bounded by chunk size and no layer copies the whole payload
+
+    //append the remaining bytes of chunk to the end of the stream
+    void write(ByteBuffer chunk);
+
+    //read stream bytes starting at position into dst, returns bytes read or -1 at end of stream
+    int read(long position, ByteBuffer dst);
+
+    //logical size of the stream as seen from this layer
+    long size();
+
+    //push any partially buffered chunk down to the next layer
+    void flush();
+
+    @Override
+    default void close() {
+    }
+
+    default long transferFrom(ReadableByteChannel src) {
+        ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+        long total = 0;
+        try {
+            while (src.read(chunk) != -1) {
+                chunk.flip();
+                total += chunk.remaining();
+                write(chunk);
+                chunk.clear();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        flush();
+        return total;
+    }
+
+    default long transferTo(long position, long count, WritableByteChannel target) {
+        ByteBuffer chunk = ByteBuffer.allocate((int) Math.min(CHUNK_SIZE, Math.max(count, 1)));
+        long done = 0;
+        try {
+            while (done < count) {
+                chunk.clear().limit((int) Math.min(chunk.capacity(), count - done));
+                int n = read(position + done, chunk);
+                if (n <= 0)
+                    break;
+                chunk.flip();
+                while (chunk.hasRemaining())
+                    target.write(chunk);
+                done += n;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return done;
+    }
 }
@@ -0,0 +1,63 @@
+package com.kode.Design_Patterns.structural.Decorator;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+//zlib deflate, better ratio, slower
+//Deflater/Inflater are reused across blocks -> not thread safe
+public class DeflateCodec implements CompressionCodec {
+    static final byte ID = 1;
+
+    private final Deflater deflater;
+    private final Inflater inflater = new Inflater(true);
+
+    public DeflateCodec() {
+        this(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    public DeflateCodec(int level) {
+        this.deflater = new Deflater(level, true);
+    }
+
+    @Override
+    public byte id() {
+        return ID;
+    }
+
+    @Override
+    public int maxCompressedLength(int rawLength) {
+        return rawLength + (rawLength >>> 3) + 64;
+    }
+
+    @Override
+    public int compress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset) {
+        deflater.reset();
+        deflater.setInput(src, srcOffset, srcLength);
+        deflater.finish();
+        int n = 0;
+        while (!deflater.finished() && dstOffset + n < dst.length)
+            n += deflater.deflate(dst, dstOffset + n, dst.length - dstOffset - n);
+        //did not fit -> report it as not worth compressing
+        return deflater.finished() ? n : Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void decompress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset, int rawLength) {
+        inflater.reset();
+        inflater.setInput(src, srcOffset, srcLength);
+        try {
+            int n = 0;
+            while (n < rawLength && !inflater.finished()) {
+                int read = inflater.inflate(dst, dstOffset + n, rawLength - n);
+                if (read == 0 && inflater.needsInput())
+                    break;
+                n += read;
+            }
+            if (n != rawLength)
+                throw new IllegalStateException("corrupt deflate block, expected " + rawLength + " bytes got " + n);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("corrupt deflate block", e);
+        }
+    }
+}
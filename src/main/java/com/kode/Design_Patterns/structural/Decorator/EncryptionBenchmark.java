@@ -0,0 +1,65 @@
+package com.kode.Design_Patterns.structural.Decorator;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+
+//throughput of segmented EncryptionDataSource against one AES-GCM pass over the whole payload
+//run: java ... EncryptionBenchmark [payloadMB]
+public class EncryptionBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws GeneralSecurityException {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 128;
+        byte[] payload = new byte[megabytes * 1024 * 1024];
+        ThreadLocalRandom.current().nextBytes(payload);
+        KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+        keyGenerator.init(256);
+        SecretKey key = keyGenerator.generateKey();
+
+        System.out.println("payload " + megabytes + "MB, cores " + Runtime.getRuntime().availableProcessors());
+        for (int round = 0; round < ROUNDS; round++) {
+            System.out.printf("round %d: whole payload %7.1f MB/s | segmented 1 thread %7.1f MB/s | segmented fork join %7.1f MB/s%n",
+                    round,
+                    wholePayload(payload, key),
+                    segmented(payload, key, new ForkJoinPool(1)),
+                    segmented(payload, key, ForkJoinPool.commonPool()));
+        }
+    }
+
+    //single threaded encrypt + decrypt of the payload as one GCM message
+    private static double wholePayload(byte[] payload, SecretKey key) throws GeneralSecurityException {
+        long start = System.nanoTime();
+        byte[] nonce = new byte[12];
+        ThreadLocalRandom.current().nextBytes(nonce);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, nonce));
+        byte[] encrypted = cipher.doFinal(payload);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(128, nonce));
+        byte[] decrypted = cipher.doFinal(encrypted);
+        return throughput(decrypted.length, start);
+    }
+
+    private static double segmented(byte[] payload, SecretKey key, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        DataSource encrypted = new EncryptionDataSource(new InMemoryDataSource(), key, BlockFramedDataSource.DEFAULT_BLOCK_SIZE, pool);
+        encrypted.write(ByteBuffer.wrap(payload));
+        encrypted.flush();
+        ByteBuffer decrypted = ByteBuffer.allocate(payload.length);
+        while (decrypted.hasRemaining())
+            encrypted.read(decrypted.position(), decrypted);
+        if (pool != ForkJoinPool.commonPool())
+            pool.shutdown();
+        return throughput(decrypted.position(), start);
+    }
+
+    private static double throughput(long bytes, long startNanos) {
+        //encrypt + decrypt -> every byte goes through the cipher twice
+        return 2.0 * bytes / (1024 * 1024) / ((System.nanoTime() - startNanos) / 1e9);
+    }
+}
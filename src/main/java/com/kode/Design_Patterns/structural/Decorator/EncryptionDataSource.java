@@ -1,21 +1,143 @@
 package com.kode.Design_Patterns.structural.Decorator;
 
-public class EncryptionDataSource extends BaseDecorator{
-    public EncryptionDataSource(DataSource nextLayer) {
-        super(nextLayer);
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+//AES-GCM over independent fixed size segments, every segment is stored as [nonce:12][ciphertext + tag:16]
+//the first segment starts with a random stream id ([streamId:16][nonce:12][ciphertext + tag:16]), generated
+//when the stream is created and read back when it is opened
+//the stream id and the segment number are bound as associated data, so segments cannot be reordered or
+//swapped, neither within a stream nor between streams encrypted with the same key
+//the last segment of every flush is tagged AES_GCM_LAST and that flag is bound as associated data too,
+//a stream that does not end on such a segment was cut short and fails when it is opened
+//(cutting back to an earlier flush is not detectable from the stream alone, that needs the length stored elsewhere)
+//segments of a batch are encrypted / decrypted on the fork join pool, a random read only decrypts the segments it touches
+public class EncryptionDataSource extends BlockFramedDataSource{
+    static final byte AES_GCM = 1;
+    static final byte AES_GCM_LAST = 2;
+    private static final int STREAM_ID_LENGTH = 16;
+    private static final int NONCE_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance("AES/GCM/NoPadding");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES/GCM not available", e);
+        }
+    });
+
+    private final SecretKey key;
+    private final ForkJoinPool pool;
+    private final byte[] streamId;
+
+    public EncryptionDataSource(DataSource nextLayer, SecretKey key) {
+        this(nextLayer, key, DEFAULT_BLOCK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    public EncryptionDataSource(DataSource nextLayer, SecretKey key, int segmentSize, ForkJoinPool pool) {
+        //a few segments per worker keeps every core busy on large writes
+        super(nextLayer, segmentSize, pool.getParallelism() * 4);
+        this.key = key;
+        this.pool = pool;
+        this.streamId = blockCount() == 0 ? newStreamId() : readStreamId();
+        verifyTail();
+    }
+
+    private static byte[] newStreamId() {
+        byte[] id = new byte[STREAM_ID_LENGTH];
+        RANDOM.nextBytes(id);
+        return id;
+    }
+
+    //a forged id only makes every segment fail authentication, the first one included
+    private byte[] readStreamId() {
+        ByteBuffer id = ByteBuffer.allocate(STREAM_ID_LENGTH);
+        readStored(0, 0, id);
+        return id.array();
+    }
+
+    //the tag in the header is not authenticated by itself, decrypting the last segment checks it against its associated data
+    private void verifyTail() {
+        int last = blockCount() - 1;
+        if (last < 0)
+            return;
+        if (blockTag(last) != AES_GCM_LAST)
+            throw new IllegalStateException("encrypted stream is truncated, segment " + last + " is not the end of a flush");
+        read(size() - 1, ByteBuffer.allocate(1));
+    }
+
+    @Override
+    protected void runBlocks(int count, IntConsumer task) {
+        if (count == 1 || pool.getParallelism() == 1) {
+            super.runBlocks(count, task);
+            return;
+        }
+        pool.submit(() -> IntStream.range(0, count).parallel().forEach(task)).join();
     }
 
     @Override
-    public String read() {
-        String value=  nextLayer.read();
-        return value+ "_encr";
+    protected byte encodeBlock(long blockNo, boolean last, byte[] raw, int rawOffset, int rawLength, ByteBuffer stored) {
+        byte[] out = stored.array();
+        int at = stored.arrayOffset() + stored.position();
+        if (blockNo == 0) {
+            System.arraycopy(streamId, 0, out, at, STREAM_ID_LENGTH);
+            stored.position(stored.position() + STREAM_ID_LENGTH);
+            at += STREAM_ID_LENGTH;
+        }
+        byte[] nonce = new byte[NONCE_LENGTH];
+        RANDOM.nextBytes(nonce);
+        System.arraycopy(nonce, 0, out, at, NONCE_LENGTH);
+        try {
+            Cipher cipher = cipher(Cipher.ENCRYPT_MODE, blockNo, last, nonce);
+            int n = cipher.doFinal(raw, rawOffset, rawLength, out, at + NONCE_LENGTH);
+            stored.position(stored.position() + NONCE_LENGTH + n);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("could not encrypt segment " + blockNo, e);
+        }
+        return last ? AES_GCM_LAST : AES_GCM;
     }
 
     @Override
-    public void write(String value) {
-        value=value+ "_encr";
-        System.out.println(value);
-        nextLayer.write(value);
+    protected void decodeBlock(long blockNo, byte tag, byte[] stored, int storedOffset, int storedLength,
+                               byte[] raw, int rawOffset, int rawLength) {
+        if (tag != AES_GCM && tag != AES_GCM_LAST)
+            throw new IllegalStateException("segment " + blockNo + " is not AES-GCM encrypted");
+        if (blockNo == 0) {
+            storedOffset += STREAM_ID_LENGTH;
+            storedLength -= STREAM_ID_LENGTH;
+        }
+        try {
+            Cipher cipher = cipher(Cipher.DECRYPT_MODE, blockNo, tag == AES_GCM_LAST, Arrays.copyOfRange(stored, storedOffset, storedOffset + NONCE_LENGTH));
+            int n = cipher.doFinal(stored, storedOffset + NONCE_LENGTH, storedLength - NONCE_LENGTH, raw, rawOffset);
+            if (n != rawLength)
+                throw new IllegalStateException("segment " + blockNo + " decrypted to " + n + " bytes, expected " + rawLength);
+        } catch (AEADBadTagException e) {
+            throw new IllegalStateException("segment " + blockNo + " failed authentication", e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("could not decrypt segment " + blockNo, e);
+        }
+    }
+
+    @Override
+    protected int maxStoredLength(int rawLength) {
+        return STREAM_ID_LENGTH + NONCE_LENGTH + rawLength + TAG_BITS / 8;
+    }
 
+    private Cipher cipher(int mode, long blockNo, boolean last, byte[] nonce) throws GeneralSecurityException {
+        Cipher cipher = CIPHER.get();
+        cipher.init(mode, key, new GCMParameterSpec(TAG_BITS, nonce));
+        cipher.updateAAD(ByteBuffer.allocate(STREAM_ID_LENGTH + Long.BYTES + 1)
+                .put(streamId).putLong(blockNo).put(last ? AES_GCM_LAST : AES_GCM).array());
+        return cipher;
     }
 }
@@ -1,13 +1,214 @@
 package com.kode.Design_Patterns.structural.Decorator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
 // concrete product class
+//append only log on disk, split in segment files named after their start offset
+//  - writes always go to the end of the last (active) segment, full segments are forced to disk, sealed and a new one is started
+//    so flush() only ever has the active segment left to force
+//  - sealed segments never change, so they are read through a read only memory map
+//  - the active segment is read with positional channel reads, it is still growing
+//  - transferTo hands the bytes to the target channel with FileChannel.transferTo (zero copy where the OS supports it)
+//not thread safe
 public class FileDataSource implements DataSource{
+    public static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+    private static final String SUFFIX = ".seg";
+
+    private final Path directory;
+    private final long segmentSize;
+    private final List<Segment> segments = new ArrayList<>();
+
+    public FileDataSource(Path directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public FileDataSource(Path directory, long segmentSize) {
+        if (segmentSize <= 0 || segmentSize > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("segment size must be in (0, 2GB]: " + segmentSize);
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> list = Files.list(directory)) {
+                files = list.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+            }
+            for (Path file : files)
+                segments.add(new Segment(file, startOf(file)));
+            if (segments.isEmpty())
+                segments.add(newSegment(0));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void write(ByteBuffer chunk) {
+        try {
+            while (chunk.hasRemaining()) {
+                Segment active = active();
+                long room = segmentSize - active.size;
+                if (room <= 0) {
+                    active.seal();
+                    segments.add(newSegment(active.start + active.size));
+                    continue;
+                }
+                int limit = chunk.limit();
+                if (chunk.remaining() > room)
+                    chunk.limit(chunk.position() + (int) room);
+                while (chunk.hasRemaining())
+                    active.size += active.channel.write(chunk, active.size);
+                chunk.limit(limit);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int read(long position, ByteBuffer dst) {
+        if (position >= size())
+            return -1;
+        int total = 0;
+        try {
+            while (dst.hasRemaining() && position < size()) {
+                Segment segment = segmentFor(position);
+                long offset = position - segment.start;
+                int n = (int) Math.min(dst.remaining(), segment.size - offset);
+                if (segment.map != null) {
+                    dst.put(dst.position(), segment.map, (int) offset, n);
+                    dst.position(dst.position() + n);
+                } else {
+                    int limit = dst.limit();
+                    dst.limit(dst.position() + n);
+                    n = segment.channel.read(dst, offset);
+                    dst.limit(limit);
+                    if (n <= 0)
+                        break;
+                }
+                position += n;
+                total += n;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return total;
+    }
+
     @Override
-    public String read() {
-        return "Base";
+    public long transferTo(long position, long count, WritableByteChannel target) {
+        long done = 0;
+        try {
+            while (done < count && position + done < size()) {
+                Segment segment = segmentFor(position + done);
+                long offset = position + done - segment.start;
+                long n = segment.channel.transferTo(offset, Math.min(count - done, segment.size - offset), target);
+                if (n <= 0)
+                    break;
+                done += n;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return done;
     }
 
     @Override
-    public void write(String value) {
-        System.out.println(value);
+    public long size() {
+        Segment active = active();
+        return active.start + active.size;
+    }
+
+    //bottom of the chain: flush means the bytes are on disk
+    @Override
+    public void flush() {
+        try {
+            active().channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            for (Segment segment : segments) {
+                segment.dropMap();
+                segment.channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    private Segment active() {
+        return segments.get(segments.size() - 1);
+    }
+
+    private Segment segmentFor(long position) {
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (segments.get(mid).start <= position)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+        return segments.get(low);
+    }
+
+    private Segment newSegment(long start) throws IOException {
+        return new Segment(directory.resolve(String.format("%020d%s", start, SUFFIX)), start);
+    }
+
+    private static long startOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    private final class Segment {
+        final long start;
+        final FileChannel channel;
+        long size;
+        MappedByteBuffer map;
+
+        Segment(Path file, long start) throws IOException {
+            this.start = start;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.size = channel.size();
+            //segments found on open are sealed unless they turn out to be the last one
+            if (size >= segmentSize)
+                seal();
+        }
+
+        //a sealed segment is never written again, so this is the last chance to get its bytes on disk
+        void seal() throws IOException {
+            if (map == null && size > 0) {
+                channel.force(false);
+                map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+        }
+
+        //the mapping is released when the buffer is collected, dropping it here sends reads after close
+        //to the closed channel, where they fail instead of reading a file that may be gone
+        void dropMap() {
+            map = null;
+        }
     }
 }
@@ -0,0 +1,37 @@
+package com.kode.Design_Patterns.structural.Decorator;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// concrete product kept on the heap, handy as the bottom layer for demos
+public class InMemoryDataSource implements DataSource {
+    private byte[] data = new byte[1024];
+    private int size;
+
+    @Override
+    public void write(ByteBuffer chunk) {
+        int n = chunk.remaining();
+        if (size + n > data.length)
+            data = Arrays.copyOf(data, Math.max(data.length * 2, size + n));
+        chunk.get(data, size, n);
+        size += n;
+    }
+
+    @Override
+    public int read(long position, ByteBuffer dst) {
+        if (position >= size)
+            return -1;
+        int n = (int) Math.min(dst.remaining(), size - position);
+        dst.put(data, (int) position, n);
+        return n;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void flush() {
+    }
+}
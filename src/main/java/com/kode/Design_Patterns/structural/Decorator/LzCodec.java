@@ -0,0 +1,136 @@
+package com.kode.Design_Patterns.structural.Decorator;
+
+import java.util.Arrays;
+
+//fast LZ77 codec in the LZ4 block layout:
+//  sequence = [token: literalLen(4 bits) | matchLen-4 (4 bits)] [extra literal len] [literals] [offset:2 LE] [extra match len]
+//the last sequence only carries literals
+//hash table is reused across blocks -> not thread safe
+public class LzCodec implements CompressionCodec {
+    static final byte ID = 2;
+
+    private static final int MIN_MATCH = 4;
+    private static final int MAX_OFFSET = 65535;
+    private static final int HASH_BITS = 14;
+
+    private final int[] table = new int[1 << HASH_BITS];
+
+    @Override
+    public byte id() {
+        return ID;
+    }
+
+    @Override
+    public int maxCompressedLength(int rawLength) {
+        return rawLength + rawLength / 255 + 16;
+    }
+
+    @Override
+    public int compress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset) {
+        //table stores position + 1, 0 means empty
+        Arrays.fill(table, 0);
+        int end = srcOffset + srcLength;
+        int anchor = srcOffset;
+        int p = srcOffset;
+        int op = dstOffset;
+        while (p + MIN_MATCH <= end) {
+            int sequence = readInt(src, p);
+            int h = (sequence * -1640531535) >>> (32 - HASH_BITS);
+            int ref = table[h] - 1;
+            table[h] = p + 1;
+            if (ref < srcOffset || p - ref > MAX_OFFSET || readInt(src, ref) != sequence) {
+                p++;
+                continue;
+            }
+            int matchLength = MIN_MATCH;
+            while (p + matchLength < end && src[ref + matchLength] == src[p + matchLength])
+                matchLength++;
+            op = writeSequence(src, anchor, p - anchor, p - ref, matchLength, dst, op);
+            p += matchLength;
+            anchor = p;
+        }
+        op = writeSequence(src, anchor, end - anchor, 0, 0, dst, op);
+        return op - dstOffset;
+    }
+
+    @Override
+    public void decompress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset, int rawLength) {
+        int ip = srcOffset;
+        int op = dstOffset;
+        int end = dstOffset + rawLength;
+        try {
+            while (true) {
+                int token = src[ip++] & 0xFF;
+                int literals = token >>> 4;
+                if (literals == 15) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xFF;
+                        literals += b;
+                    } while (b == 255);
+                }
+                System.arraycopy(src, ip, dst, op, literals);
+                ip += literals;
+                op += literals;
+                if (op >= end)
+                    break;
+                int offset = (src[ip++] & 0xFF) | (src[ip++] & 0xFF) << 8;
+                int matchLength = token & 15;
+                if (matchLength == 15) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xFF;
+                        matchLength += b;
+                    } while (b == 255);
+                }
+                matchLength += MIN_MATCH;
+                int ref = op - offset;
+                if (offset == 0 || ref < dstOffset || op + matchLength > end)
+                    throw new IllegalStateException("corrupt lz block at " + ip);
+                if (offset >= matchLength) {
+                    System.arraycopy(dst, ref, dst, op, matchLength);
+                    op += matchLength;
+                } else {
+                    //overlapping copy repeats the last offset bytes
+                    for (int i = 0; i < matchLength; i++)
+                        dst[op++] = dst[ref + i];
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalStateException("corrupt lz block", e);
+        }
+        if (ip != srcOffset + srcLength || op != end)
+            throw new IllegalStateException("corrupt lz block, expected " + rawLength + " bytes got " + (op - dstOffset));
+    }
+
+    private static int writeSequence(byte[] src, int literalStart, int literals, int offset, int matchLength, byte[] dst, int op) {
+        int extraMatch = matchLength == 0 ? 0 : matchLength - MIN_MATCH;
+        int tokenAt = op++;
+        int token = Math.min(literals, 15) << 4 | Math.min(extraMatch, 15);
+        if (literals >= 15)
+            op = writeLength(literals - 15, dst, op);
+        System.arraycopy(src, literalStart, dst, op, literals);
+        op += literals;
+        if (matchLength != 0) {
+            dst[op++] = (byte) offset;
+            dst[op++] = (byte) (offset >>> 8);
+            if (extraMatch >= 15)
+                op = writeLength(extraMatch - 15, dst, op);
+        }
+        dst[tokenAt] = (byte) token;
+        return op;
+    }
+
+    private static int writeLength(int length, byte[] dst, int op) {
+        while (length >= 255) {
+            dst[op++] = (byte) 255;
+            length -= 255;
+        }
+        dst[op++] = (byte) length;
+        return op;
+    }
+
+    private static int readInt(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16 | (b[i + 3] & 0xFF) << 24;
+    }
+}
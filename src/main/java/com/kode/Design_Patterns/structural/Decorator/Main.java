@@ -1,13 +1,66 @@
 package com.kode.Design_Patterns.structural.Decorator;
 
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+
 public class Main {
-    public static void main(String[] args) {
-     DataSource dataSource = new FileDataSource();
-     DataSource encrpyt = new EncryptionDataSource(dataSource);
-     DataSource comp = new CompressionDataSource(dataSource);
+    public static void main(String[] args) throws IOException, GeneralSecurityException {
+     Path directory = Files.createTempDirectory("datasource");
+     DataSource dataSource = new FileDataSource(directory);
+     KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+     keyGenerator.init(256);
+     SecretKey key = keyGenerator.generateKey();
+     DataSource encrpyt = new EncryptionDataSource(dataSource, key);
+     encrpyt.write("Base");
      System.out.println(encrpyt.read());
-     System.out.println(comp.read());
-     comp = new CompressionDataSource(encrpyt);
-        System.out.println(comp.read());
+
+        //streaming: push a channel through the chain chunk by chunk
+        DataSource memory = new InMemoryDataSource();
+        CompressionDataSource comp = new CompressionDataSource(memory, new LzCodec(), 4 * 1024);
+        byte[] payload = "streamed payload, streamed payload, streamed payload\n".repeat(1000).getBytes(StandardCharsets.UTF_8);
+        comp.transferFrom(Channels.newChannel(new ByteArrayInputStream(payload)));
+        System.out.println("raw " + comp.size() + " bytes, stored " + memory.size() + " bytes in " + comp.blockCount() + " blocks");
+
+        //random read only decompresses the block holding the range
+        ByteBuffer range = ByteBuffer.allocate(17);
+        comp.read(30_000, range);
+        System.out.println(new String(range.array(), 0, range.position(), StandardCharsets.UTF_8));
+
+        //reopen with a deflate reader, codec comes from the block headers
+        DataSource reopened = new CompressionDataSource(memory, new DeflateCodec());
+        reopened.transferTo(0, 53, Channels.newChannel(System.out));
+
+        //compressed + encrypted log on disk, 16KB segments
+        try (DataSource file = new CompressionDataSource(new EncryptionDataSource(new FileDataSource(directory.resolve("log"), 16 * 1024), key), new DeflateCodec())) {
+            file.transferFrom(Channels.newChannel(new ByteArrayInputStream(payload)));
+        }
+        FileDataSource log = new FileDataSource(directory.resolve("log"), 16 * 1024);
+        try (DataSource file = new CompressionDataSource(new EncryptionDataSource(log, key))) {
+            System.out.println("reopened " + file.size() + " bytes from " + log.segmentCount() + " segments");
+            file.transferTo(file.size() - 53, 53, Channels.newChannel(System.out));
+        }
+
+        //small records through a write behind layer, one fsync covers many writes
+        try (WriteBehindDataSource writeBehind = new WriteBehindDataSource(new FileDataSource(directory.resolve("records")))) {
+            for (int i = 0; i < 10_000; i++)
+                writeBehind.write(ByteBuffer.wrap(("record " + i + "\n").getBytes(StandardCharsets.UTF_8)));
+            writeBehind.writeAsync(ByteBuffer.wrap("last record\n".getBytes(StandardCharsets.UTF_8))).join();
+            System.out.println(writeBehind.writes() + " writes in " + writeBehind.groupCommits() + " group commits");
+        }
+
+        //hot reads above compression + encryption are served from decoded pages
+        CachingDataSource cached = new CachingDataSource(new CompressionDataSource(new EncryptionDataSource(new InMemoryDataSource(), key)), 256 * 1024, 4 * 1024);
+        cached.transferFrom(Channels.newChannel(new ByteArrayInputStream(payload)));
+        for (int i = 0; i < 1_000; i++)
+            cached.read(i % 8 * 1_000, ByteBuffer.allocate(64));
+        System.out.println(cached.stats() + " hit rate " + cached.stats().hitRate());
     }
 }
@@ -0,0 +1,53 @@
+package com.kode.Design_Patterns.structural.Decorator;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+
+//compress -> encrypt -> file, every stage on the caller thread vs one worker per stage
+//run: java ... PipelineBenchmark [payloadMB]
+public class PipelineBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException, GeneralSecurityException {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 128;
+        //half random half repetitive, so compression has real work and real output
+        byte[] payload = new byte[megabytes * 1024 * 1024];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < payload.length; i++)
+            payload[i] = (byte) ((i / 1024) % 2 == 0 ? random.nextInt() : i % 61);
+        KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+        keyGenerator.init(256);
+        SecretKey key = keyGenerator.generateKey();
+        //one thread per encryption batch, so the pipeline is the only parallelism measured
+        ForkJoinPool single = new ForkJoinPool(1);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            Path sequentialDir = Files.createTempDirectory("sequential");
+            double sequential = run(payload, new CompressionDataSource(
+                    new EncryptionDataSource(new FileDataSource(sequentialDir), key, BlockFramedDataSource.DEFAULT_BLOCK_SIZE, single)));
+            Path pipelinedDir = Files.createTempDirectory("pipelined");
+            double pipelined = run(payload, new CompressionDataSource(new PipelinedDataSource(
+                    new EncryptionDataSource(new PipelinedDataSource(new FileDataSource(pipelinedDir)), key, BlockFramedDataSource.DEFAULT_BLOCK_SIZE, single))));
+            System.out.printf("round %d: sequential %7.1f MB/s | pipelined %7.1f MB/s%n", round, sequential, pipelined);
+        }
+        single.shutdown();
+    }
+
+    private static double run(byte[] payload, DataSource chain) {
+        long start = System.nanoTime();
+        ByteBuffer chunk = ByteBuffer.wrap(payload);
+        for (int offset = 0; offset < payload.length; offset += DataSource.CHUNK_SIZE) {
+            chunk.limit(Math.min(payload.length, offset + DataSource.CHUNK_SIZE)).position(offset);
+            chain.write(chunk);
+        }
+        chain.close();
+        return (double) payload.length / (1024 * 1024) / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,173 @@
+package com.kode.Design_Patterns.structural.Decorator;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+//pipeline stage: put it between two layers and the layer below runs on its own worker thread
+//  new CompressionDataSource(new PipelinedDataSource(new EncryptionDataSource(new PipelinedDataSource(file), key)))
+//compress runs on the caller, encrypt and file I/O each on a stage worker, so the three overlap and
+//the chain moves at the speed of its slowest stage
+//write() copies the chunk into a pooled buffer (the layer above reuses its own) and queues it, the
+//worker writes it to the next layer and returns the buffer to the pool; pool size bounds the memory
+//and a full pool blocks the producer (backpressure)
+//one producer: the layer above, reads and flush() wait until the queue is drained
+public class PipelinedDataSource extends BaseDecorator {
+    public static final int DEFAULT_BUFFERS = 8;
+    private static final ByteBuffer FLUSH = ByteBuffer.allocate(0);
+    private static final ByteBuffer STOP = ByteBuffer.allocate(0);
+
+    private final BlockingQueue<ByteBuffer> pool;
+    private final BlockingQueue<ByteBuffer> queue;
+    private final Thread worker;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition progress = lock.newCondition();
+    private long submitted;
+    private long completed;
+    private volatile RuntimeException failure;
+    private volatile long size;
+
+    public PipelinedDataSource(DataSource nextLayer) {
+        this(nextLayer, DEFAULT_BUFFERS, BlockFramedDataSource.DEFAULT_BLOCK_SIZE + BlockFramedDataSource.HEADER_SIZE + 1024);
+    }
+
+    public PipelinedDataSource(DataSource nextLayer, int buffers, int bufferSize) {
+        super(nextLayer);
+        if (buffers <= 0 || bufferSize <= 0)
+            throw new IllegalArgumentException("buffers and buffer size must be positive: " + buffers + ", " + bufferSize);
+        this.pool = new ArrayBlockingQueue<>(buffers);
+        for (int i = 0; i < buffers; i++)
+            pool.add(ByteBuffer.allocate(bufferSize));
+        //markers travel through the same queue as the data
+        this.queue = new ArrayBlockingQueue<>(buffers + 2);
+        this.size = nextLayer.size();
+        this.worker = new Thread(this::run, "pipeline-stage-" + nextLayer.getClass().getSimpleName());
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void write(ByteBuffer chunk) {
+        checkFailure();
+        while (chunk.hasRemaining()) {
+            ByteBuffer buffer = take(pool);
+            int limit = chunk.limit();
+            chunk.limit(chunk.position() + Math.min(chunk.remaining(), buffer.remaining()));
+            buffer.put(chunk).flip();
+            chunk.limit(limit);
+            size += buffer.remaining();
+            submit(buffer);
+        }
+    }
+
+    @Override
+    public void flush() {
+        await(submit(FLUSH));
+    }
+
+    @Override
+    public int read(long position, ByteBuffer dst) {
+        drain();
+        return nextLayer.read(position, dst);
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void close() {
+        flush();
+        submit(STOP);
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        nextLayer.close();
+    }
+
+    private void run() {
+        while (true) {
+            ByteBuffer item = take(queue);
+            if (item == STOP)
+                return;
+            try {
+                if (failure == null) {
+                    if (item == FLUSH)
+                        nextLayer.flush();
+                    else
+                        nextLayer.write(item);
+                }
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            if (item != FLUSH)
+                pool.add(item.clear());
+            lock.lock();
+            try {
+                completed++;
+                progress.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private long submit(ByteBuffer item) {
+        long ticket;
+        lock.lock();
+        try {
+            ticket = ++submitted;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while queueing for the next stage", e);
+        }
+        return ticket;
+    }
+
+    private void drain() {
+        long ticket;
+        lock.lock();
+        try {
+            ticket = submitted;
+        } finally {
+            lock.unlock();
+        }
+        await(ticket);
+    }
+
+    private void await(long ticket) {
+        lock.lock();
+        try {
+            while (completed < ticket)
+                progress.awaitUninterruptibly();
+        } finally {
+            lock.unlock();
+        }
+        checkFailure();
+    }
+
+    private void checkFailure() {
+        if (failure != null)
+            throw new IllegalStateException("pipeline stage " + worker.getName() + " failed", failure);
+    }
+
+    private static ByteBuffer take(BlockingQueue<ByteBuffer> from) {
+        try {
+            return from.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for the pipeline", e);
+        }
+    }
+}
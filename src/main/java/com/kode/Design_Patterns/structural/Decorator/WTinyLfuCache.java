@@ -0,0 +1,202 @@
+package com.kode.Design_Patterns.structural.Decorator;
+
+import java.util.HashMap;
+
+//bounded cache with the W-TinyLFU policy
+//  window   -> small LRU (1%) new entries land in, absorbs bursts
+//  main     -> segmented LRU, probation (20%) + protected (80%), a hit in probation promotes to protected
+//  admission-> an entry leaving the window only replaces the probation victim if the frequency
+//              sketch has seen it more often, so one-off reads cannot flush out hot entries
+//thread safe (synchronized)
+public class WTinyLfuCache<K, V> {
+    private static final int WINDOW = 0, PROBATION = 1, PROTECTED = 2;
+
+    private final int maxEntries;
+    private final int windowMax;
+    private final int protectedMax;
+    private final HashMap<K, Node<K, V>> map = new HashMap<>();
+    private final FrequencySketch sketch;
+    @SuppressWarnings("unchecked")
+    private final Node<K, V>[] queues = (Node<K, V>[]) new Node<?, ?>[]{new Node<>(), new Node<>(), new Node<>()};
+    private final int[] sizes = new int[3];
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public WTinyLfuCache(int maxEntries) {
+        if (maxEntries <= 0)
+            throw new IllegalArgumentException("cache needs at least one entry: " + maxEntries);
+        this.maxEntries = maxEntries;
+        this.windowMax = Math.max(1, maxEntries / 100);
+        this.protectedMax = (maxEntries - windowMax) * 8 / 10;
+        this.sketch = new FrequencySketch(maxEntries);
+    }
+
+    public synchronized V get(K key) {
+        sketch.increment(key.hashCode());
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        onHit(node);
+        return node.value;
+    }
+
+    //lookup that leaves the stats, the sketch and the recency order alone, for a caller re-checking after a miss
+    public synchronized V peek(K key) {
+        Node<K, V> node = map.get(key);
+        return node == null ? null : node.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        Node<K, V> node = map.get(key);
+        if (node != null) {
+            node.value = value;
+            return;
+        }
+        node = new Node<>(key, value);
+        map.put(key, node);
+        addFirst(WINDOW, node);
+        if (sizes[WINDOW] > windowMax)
+            evictFromWindow();
+    }
+
+    public synchronized boolean invalidate(K key) {
+        Node<K, V> node = map.remove(key);
+        if (node == null)
+            return false;
+        unlink(node);
+        invalidations++;
+        return true;
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, invalidations, map.size(), maxEntries);
+    }
+
+    private void onHit(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW, PROTECTED -> {
+                unlink(node);
+                addFirst(node.queue, node);
+            }
+            default -> {
+                unlink(node);
+                addFirst(PROTECTED, node);
+                if (sizes[PROTECTED] > protectedMax) {
+                    Node<K, V> demoted = queues[PROTECTED].prev;
+                    unlink(demoted);
+                    addFirst(PROBATION, demoted);
+                }
+            }
+        }
+    }
+
+    private void evictFromWindow() {
+        Node<K, V> candidate = queues[WINDOW].prev;
+        unlink(candidate);
+        addFirst(PROBATION, candidate);
+        if (map.size() <= maxEntries)
+            return;
+        Node<K, V> victim = queues[PROBATION].prev;
+        Node<K, V> evicted = victim == candidate
+                || sketch.frequency(candidate.key.hashCode()) > sketch.frequency(victim.key.hashCode())
+                ? victim : candidate;
+        unlink(evicted);
+        map.remove(evicted.key);
+        evictions++;
+    }
+
+    private void addFirst(int queue, Node<K, V> node) {
+        Node<K, V> head = queues[queue];
+        node.queue = queue;
+        node.prev = head;
+        node.next = head.next;
+        head.next.prev = node;
+        head.next = node;
+        sizes[queue]++;
+    }
+
+    private void unlink(Node<K, V> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        sizes[node.queue]--;
+    }
+
+    public record Stats(long hits, long misses, long evictions, long invalidations, int entries, int maxEntries) {
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        V value;
+        int queue;
+        Node<K, V> prev = this, next = this;
+
+        //sentinel
+        Node() {
+            this.key = null;
+        }
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    //count-min sketch of 4 rows with counters capped at 15, halved every sampleSize increments so old popularity fades
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+        private final byte[][] rows;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int maxEntries) {
+            int width = Integer.highestOneBit(Math.max(16, maxEntries) - 1) << 1;
+            this.rows = new byte[SEEDS.length][width];
+            this.mask = width - 1;
+            this.sampleSize = 10 * Math.max(16, maxEntries);
+        }
+
+        void increment(int hash) {
+            for (int i = 0; i < rows.length; i++) {
+                int index = index(hash, i);
+                if (rows[i][index] < 15)
+                    rows[i][index]++;
+            }
+            if (++additions == sampleSize)
+                reset();
+        }
+
+        int frequency(int hash) {
+            int frequency = 15;
+            for (int i = 0; i < rows.length; i++)
+                frequency = Math.min(frequency, rows[i][index(hash, i)]);
+            return frequency;
+        }
+
+        private int index(int hash, int row) {
+            long h = (hash + SEEDS[row]) * SEEDS[row];
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        private void reset() {
+            for (byte[] row : rows)
+                for (int i = 0; i < row.length; i++)
+                    row[i] >>= 1;
+            additions /= 2;
+        }
+    }
+}
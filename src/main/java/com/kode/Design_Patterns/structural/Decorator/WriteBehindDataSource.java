@@ -0,0 +1,328 @@
+package com.kode.Design_Patterns.structural.Decorator;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+//write behind decorator with group commit
+//writes are copied into an in-memory batch and return, a single flusher thread hands the batch to the
+//next layer when it is full or maxDelay after its first byte, followed by one flush (fsync at the file layer)
+//that makes every write of the batch durable at once, a caller waiting for durability triggers the flush without the delay
+//  FIRE_AND_FORGET  -> write() returns once the bytes are buffered
+//  WAIT_FOR_DURABLE -> write() returns once the batch holding the bytes is flushed
+//writeAsync() lets a caller pick per call, flush() waits for everything written so far
+//thread safe, the next layer is only touched by the flusher thread and by reads (under ioLock)
+public class WriteBehindDataSource extends BaseDecorator {
+    public enum Mode { FIRE_AND_FORGET, WAIT_FOR_DURABLE }
+
+    public static final int DEFAULT_BATCH_BYTES = 1024 * 1024;
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofMillis(5);
+
+    private final Mode mode;
+    private final long maxDelayNanos;
+
+    //bufferLock guards the two batches and the counters, ioLock serializes access to the next layer
+    //appendLock orders writers: a chunk larger than the free space waits for the flusher with bufferLock
+    //released, holding appendLock keeps other writers from slipping their bytes into the middle of it
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock bufferLock = new ReentrantLock();
+    private final ReentrantLock ioLock = new ReentrantLock();
+    private final Condition work = bufferLock.newCondition();
+    private final Condition notFull = bufferLock.newCondition();
+    private final Condition durableAdvanced = bufferLock.newCondition();
+
+    private byte[] active;
+    private int activeFill;
+    private long activeSince;
+    private byte[] flushing;
+    private int flushingFill;
+
+    //stream offsets: [0, committed) is in the next layer, then the flushing batch, then the active batch
+    private long committed;
+    private long durable;
+    private long flushRequested;
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+
+    private long writes;
+    private long groupCommits;
+    private RuntimeException failure;
+    private boolean closed;
+    private final Thread flusher;
+
+    public WriteBehindDataSource(DataSource nextLayer) {
+        this(nextLayer, DEFAULT_BATCH_BYTES, DEFAULT_MAX_DELAY, Mode.FIRE_AND_FORGET);
+    }
+
+    public WriteBehindDataSource(DataSource nextLayer, int batchBytes, Duration maxDelay, Mode mode) {
+        super(nextLayer);
+        if (batchBytes <= 0)
+            throw new IllegalArgumentException("batch size must be positive: " + batchBytes);
+        this.mode = mode;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.active = new byte[batchBytes];
+        this.flushing = new byte[batchBytes];
+        this.committed = nextLayer.size();
+        this.durable = committed;
+        this.flusher = new Thread(this::flushLoop, "write-behind-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void write(ByteBuffer chunk) {
+        long end = append(chunk);
+        if (mode == Mode.WAIT_FOR_DURABLE)
+            awaitDurable(end);
+    }
+
+    //completes when the batch holding chunk is durable in the next layer
+    public CompletableFuture<Void> writeAsync(ByteBuffer chunk) {
+        long end = append(chunk);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        bufferLock.lock();
+        try {
+            if (failure != null)
+                future.completeExceptionally(failure);
+            else if (durable >= end)
+                future.complete(null);
+            else {
+                waiters.add(new Waiter(end, future));
+                requestFlush(end);
+            }
+        } finally {
+            bufferLock.unlock();
+        }
+        return future;
+    }
+
+    @Override
+    public void flush() {
+        bufferLock.lock();
+        long end;
+        try {
+            end = committed + flushingFill + activeFill;
+        } finally {
+            bufferLock.unlock();
+        }
+        awaitDurable(end);
+    }
+
+    @Override
+    public int read(long position, ByteBuffer dst) {
+        ioLock.lock();
+        bufferLock.lock();
+        try {
+            if (position >= committed + flushingFill + activeFill)
+                return -1;
+            int total = 0;
+            while (dst.hasRemaining() && position < committed) {
+                int limit = dst.limit();
+                dst.limit(dst.position() + (int) Math.min(dst.remaining(), committed - position));
+                int n = nextLayer.read(position, dst);
+                dst.limit(limit);
+                if (n <= 0)
+                    return total > 0 ? total : n;
+                position += n;
+                total += n;
+            }
+            total += copy(flushing, flushingFill, position - committed, dst);
+            total += copy(active, activeFill, position - committed - flushingFill, dst);
+            return total;
+        } finally {
+            bufferLock.unlock();
+            ioLock.unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        bufferLock.lock();
+        try {
+            return committed + flushingFill + activeFill;
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        bufferLock.lock();
+        try {
+            closed = true;
+            work.signal();
+        } finally {
+            bufferLock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        nextLayer.close();
+    }
+
+    public long writes() {
+        bufferLock.lock();
+        try {
+            return writes;
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    //flushes of the next layer, writes / groupCommits = writes made durable per fsync
+    public long groupCommits() {
+        bufferLock.lock();
+        try {
+            return groupCommits;
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    //every chunk lands contiguously in the stream, even when it spans several batches
+    private long append(ByteBuffer chunk) {
+        appendLock.lock();
+        bufferLock.lock();
+        try {
+            checkOpen();
+            while (chunk.hasRemaining()) {
+                while (activeFill == active.length) {
+                    work.signal();
+                    notFull.awaitUninterruptibly();
+                    checkOpen();
+                }
+                if (activeFill == 0) {
+                    //flusher is parked without a deadline until the batch gets its first byte
+                    activeSince = System.nanoTime();
+                    work.signal();
+                }
+                int n = Math.min(chunk.remaining(), active.length - activeFill);
+                chunk.get(active, activeFill, n);
+                activeFill += n;
+                if (activeFill == active.length)
+                    work.signal();
+            }
+            writes++;
+            return committed + flushingFill + activeFill;
+        } finally {
+            bufferLock.unlock();
+            appendLock.unlock();
+        }
+    }
+
+    //a durable waiter does not wait for the time trigger: the flusher starts right away, and writes
+    //arriving while that fsync runs pile up in the next batch
+    private void awaitDurable(long end) {
+        bufferLock.lock();
+        try {
+            requestFlush(end);
+            while (durable < end) {
+                if (failure != null)
+                    throw new IllegalStateException("write behind flush failed", failure);
+                durableAdvanced.awaitUninterruptibly();
+            }
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            bufferLock.lock();
+            try {
+                while (!readyToFlush()) {
+                    if (closed && activeFill == 0)
+                        return;
+                    long wait = activeFill == 0 ? Long.MAX_VALUE : maxDelayNanos - (System.nanoTime() - activeSince);
+                    if (wait == Long.MAX_VALUE)
+                        work.awaitUninterruptibly();
+                    else
+                        work.awaitNanos(wait);
+                }
+                byte[] swap = flushing;
+                flushing = active;
+                flushingFill = activeFill;
+                active = swap;
+                activeFill = 0;
+                notFull.signalAll();
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                bufferLock.unlock();
+            }
+
+            RuntimeException error = null;
+            ioLock.lock();
+            try {
+                nextLayer.write(ByteBuffer.wrap(flushing, 0, flushingFill));
+                nextLayer.flush();
+            } catch (RuntimeException e) {
+                error = e;
+            } finally {
+                ioLock.unlock();
+            }
+
+            bufferLock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                    for (Waiter waiter : waiters)
+                        waiter.future.completeExceptionally(error);
+                    waiters.clear();
+                    durableAdvanced.signalAll();
+                    notFull.signalAll();
+                    return;
+                }
+                committed += flushingFill;
+                durable = committed;
+                flushingFill = 0;
+                groupCommits++;
+                while (!waiters.isEmpty() && waiters.peek().end <= durable)
+                    waiters.poll().future.complete(null);
+                durableAdvanced.signalAll();
+            } finally {
+                bufferLock.unlock();
+            }
+        }
+    }
+
+    private void requestFlush(long end) {
+        if (end > flushRequested) {
+            flushRequested = end;
+            work.signal();
+        }
+    }
+
+    private boolean readyToFlush() {
+        if (activeFill == 0)
+            return false;
+        return activeFill == active.length
+                || closed
+                || flushRequested > committed
+                || System.nanoTime() - activeSince >= maxDelayNanos;
+    }
+
+    private void checkOpen() {
+        if (failure != null)
+            throw new IllegalStateException("write behind flush failed", failure);
+        if (closed)
+            throw new IllegalStateException("data source is closed");
+    }
+
+    private static int copy(byte[] batch, int fill, long offset, ByteBuffer dst) {
+        if (offset < 0 || offset >= fill || !dst.hasRemaining())
+            return 0;
+        int n = (int) Math.min(dst.remaining(), fill - offset);
+        dst.put(batch, (int) offset, n);
+        return n;
+    }
+
+    private record Waiter(long end, CompletableFuture<Void> future) {
+    }
+}
@@ -1,16 +1,21 @@
 package com.kode.Design_Patterns.structural.Flyweight;
 
-import java.util.HashMap;
-
 public class BulletRegistry {
 
-    HashMap<BulletType,Bullet> bullets = new HashMap<>();
+    //one Bullet per type, adding another bullet of a type replaces the shared one (bullets already flying keep theirs)
+    FlyweightPool<BulletType,Bullet> bullets = FlyweightPool.strong(type -> {
+        throw new IllegalArgumentException("no bullet registered for " + type);
+    });
 
     public void addBullet(Bullet bullet){
         bullets.put(bullet.buletType,bullet);
     }
 
     public Bullet getBullets(BulletType type){
-      return   bullets.get(type);
+      return   bullets.getIfPresent(type);
+    }
+
+    public FlyweightPool.Stats stats(){
+        return bullets.stats();
     }
 }
@@ -0,0 +1,77 @@
+package com.kode.Design_Patterns.structural.Flyweight;
+
+import java.lang.ref.Reference;
+import java.util.concurrent.ThreadLocalRandom;
+
+//heap per bullet and ns per bullet per tick: one FlyingBullet object per bullet vs FlyingBulletStore columns
+//the object model gets the same precomputed step as the store (MovingBullet), so only the layout differs
+//run: java ... BulletStoreBenchmark [bullets]
+public class BulletStoreBenchmark {
+    private static final int TICKS = 200;
+    private static final int SPEED = 3;
+
+    public static void main(String[] args) {
+        int bullets = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        BulletRegistry registry = new BulletRegistry();
+        registry.addBullet(new Bullet("img1", 2, 2, BulletType.ELEVEN_MM));
+        registry.addBullet(new Bullet("img2", 3, 2, BulletType.Nine_MM));
+        double[] directions = new double[bullets];
+        for (int i = 0; i < bullets; i++)
+            directions[i] = ThreadLocalRandom.current().nextDouble(2 * Math.PI);
+
+        long before = usedHeap();
+        MovingBullet[] objects = new MovingBullet[bullets];
+        for (int i = 0; i < bullets; i++) {
+            BulletType type = i % 2 == 0 ? BulletType.Nine_MM : BulletType.ELEVEN_MM;
+            objects[i] = new MovingBullet(i, i, i, directions[i], registry.getBullets(type), SPEED);
+        }
+        long objectBytes = usedHeap() - before;
+
+        before = usedHeap();
+        FlyingBulletStore store = new FlyingBulletStore(registry, bullets);
+        for (int i = 0; i < bullets; i++)
+            store.add(i, i, i, directions[i], SPEED, i % 2 == 0 ? BulletType.Nine_MM : BulletType.ELEVEN_MM);
+        long storeBytes = usedHeap() - before;
+        System.out.printf("heap: objects %.1f bytes/bullet | store %.1f bytes/bullet%n",
+                (double) objectBytes / bullets, (double) storeBytes / bullets);
+
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int tick = 0; tick < TICKS; tick++)
+                for (MovingBullet bullet : objects)
+                    bullet.tick();
+            double objectNanos = (double) (System.nanoTime() - start) / TICKS / bullets;
+            start = System.nanoTime();
+            for (int tick = 0; tick < TICKS; tick++)
+                store.tick();
+            double storeNanos = (double) (System.nanoTime() - start) / TICKS / bullets;
+            System.out.printf("round %d: objects %.3f ns/bullet/tick | store %.3f ns/bullet/tick%n", round, objectNanos, storeNanos);
+        }
+        System.out.println(objects[bullets - 1].x + store.x(bullets - 1));
+        Reference.reachabilityFence(objects);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    //object per bullet with the same precomputed step the store keeps
+    private static final class MovingBullet extends FlyingBullet {
+        final int vx;
+        final int vy;
+
+        MovingBullet(int x, int y, int z, double direction, Bullet bullet, int speed) {
+            super(x, y, z, direction, bullet);
+            this.vx = (int) Math.round(Math.cos(direction) * speed);
+            this.vy = (int) Math.round(Math.sin(direction) * speed);
+        }
+
+        void tick() {
+            x += vx;
+            y += vy;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.kode.Design_Patterns.structural.Flyweight;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+//extrinsic state of all bullets in flight as columns instead of one FlyingBullet object each
+//  x / y / z / direction -> primitive arrays, bullet i is index i in every column
+//  type                  -> BulletType ordinal as a byte, the shared Bullet comes from a per type table
+//  vx / vy               -> per tick step, worked out once from direction (radians in the x/y plane) and speed
+//29 bytes per bullet with no headers or pointers, tick() is a plain int loop per column the JIT vectorizes
+//removal swaps the last bullet into the hole, so indexes of other bullets can change
+public class FlyingBulletStore {
+    private final Bullet[] bulletsByType = new Bullet[BulletType.values().length];
+    private int[] x;
+    private int[] y;
+    private int[] z;
+    private int[] vx;
+    private int[] vy;
+    private double[] direction;
+    private byte[] type;
+    private int size;
+
+    public FlyingBulletStore(BulletRegistry registry, int capacity) {
+        for (BulletType bulletType : BulletType.values())
+            bulletsByType[bulletType.ordinal()] = registry.getBullets(bulletType);
+        x = new int[capacity];
+        y = new int[capacity];
+        z = new int[capacity];
+        vx = new int[capacity];
+        vy = new int[capacity];
+        direction = new double[capacity];
+        type = new byte[capacity];
+    }
+
+    //index of the new bullet
+    public int add(int x, int y, int z, double direction, int speed, BulletType bulletType) {
+        if (bulletsByType[bulletType.ordinal()] == null)
+            throw new IllegalArgumentException("no bullet registered for " + bulletType);
+        if (size == this.x.length)
+            grow();
+        int i = size++;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.z[i] = z;
+        this.vx[i] = (int) Math.round(Math.cos(direction) * speed);
+        this.vy[i] = (int) Math.round(Math.sin(direction) * speed);
+        this.direction[i] = direction;
+        this.type[i] = (byte) bulletType.ordinal();
+        return i;
+    }
+
+    //index must be below size(), the arrays are larger than that and would hand back stale bullets
+    public void remove(int index) {
+        Objects.checkIndex(index, size);
+        int last = --size;
+        x[index] = x[last];
+        y[index] = y[last];
+        z[index] = z[last];
+        vx[index] = vx[last];
+        vy[index] = vy[last];
+        direction[index] = direction[last];
+        type[index] = type[last];
+    }
+
+    //moves every bullet one step along its direction
+    public void tick() {
+        int[] x = this.x, y = this.y, vx = this.vx, vy = this.vy;
+        int size = this.size;
+        for (int i = 0; i < size; i++)
+            x[i] += vx[i];
+        for (int i = 0; i < size; i++)
+            y[i] += vy[i];
+    }
+
+    //drops every bullet outside -limit..limit on x or y, returns how many were dropped
+    public int removeOutside(int limit) {
+        int removed = 0;
+        for (int i = size - 1; i >= 0; i--) {
+            if (Math.abs(x[i]) > limit || Math.abs(y[i]) > limit) {
+                remove(i);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int x(int index) {
+        return x[Objects.checkIndex(index, size)];
+    }
+
+    public int y(int index) {
+        return y[Objects.checkIndex(index, size)];
+    }
+
+    public int z(int index) {
+        return z[Objects.checkIndex(index, size)];
+    }
+
+    public double direction(int index) {
+        return direction[Objects.checkIndex(index, size)];
+    }
+
+    public BulletType type(int index) {
+        return BulletType.values()[type[Objects.checkIndex(index, size)]];
+    }
+
+    public Bullet bullet(int index) {
+        return bulletsByType[type[Objects.checkIndex(index, size)]];
+    }
+
+    //object view of one bullet for code written against FlyingBullet, allocates
+    public FlyingBullet toFlyingBullet(int index) {
+        Objects.checkIndex(index, size);
+        return new FlyingBullet(x[index], y[index], z[index], direction[index], bullet(index));
+    }
+
+    private void grow() {
+        int capacity = Math.max(16, x.length * 2);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        z = Arrays.copyOf(z, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        direction = Arrays.copyOf(direction, capacity);
+        type = Arrays.copyOf(type, capacity);
+    }
+}
@@ -0,0 +1,191 @@
+package com.kode.Design_Patterns.structural.Flyweight;
+
+import com.kode.Design_Patterns.structural.Decorator.WTinyLfuCache;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+//thread safe pool of flyweights (intrinsic state), one shared instance per key
+//  strong  -> kept forever, get-or-create is one ConcurrentHashMap.computeIfAbsent, lock free on hits
+//  weak    -> an instance nobody references any more is collected and dropped from the pool, the next get
+//             creates it again, for large key spaces with rarely used states
+//  bounded -> at most maxEntries, rarely used states are evicted first (WTinyLfuCache), calls are serialized
+//get-or-create is atomic in every mode: concurrent gets of a new key create it once and all get that instance
+//(bounded / weak: after an eviction a new instance is created, holders of the old one keep theirs)
+public final class FlyweightPool<K, V> {
+    private final Function<? super K, ? extends V> factory;
+    private final Map<K, V> strong;
+    private final Map<K, WeakValue<K, V>> weak;
+    private final ReferenceQueue<V> collected;
+    private final WTinyLfuCache<K, V> bounded;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder collectedCount = new LongAdder();
+
+    private FlyweightPool(Function<? super K, ? extends V> factory, boolean weakValues, int maxEntries) {
+        this.factory = factory;
+        this.strong = !weakValues && maxEntries == 0 ? new ConcurrentHashMap<>() : null;
+        this.weak = weakValues ? new ConcurrentHashMap<>() : null;
+        this.collected = weakValues ? new ReferenceQueue<>() : null;
+        this.bounded = maxEntries > 0 ? new WTinyLfuCache<>(maxEntries) : null;
+    }
+
+    public static <K, V> FlyweightPool<K, V> strong(Function<? super K, ? extends V> factory) {
+        return new FlyweightPool<>(factory, false, 0);
+    }
+
+    public static <K, V> FlyweightPool<K, V> weak(Function<? super K, ? extends V> factory) {
+        return new FlyweightPool<>(factory, true, 0);
+    }
+
+    public static <K, V> FlyweightPool<K, V> bounded(Function<? super K, ? extends V> factory, int maxEntries) {
+        if (maxEntries <= 0)
+            throw new IllegalArgumentException("max entries must be positive: " + maxEntries);
+        return new FlyweightPool<>(factory, false, maxEntries);
+    }
+
+    //shared instance for key, created by the factory on first use
+    public V get(K key) {
+        return lookup(key, factory);
+    }
+
+    //shared instance for key, or null, never creates
+    public V getIfPresent(K key) {
+        return lookup(key, null);
+    }
+
+    //registers candidate as the shared instance for key unless there is one already, returns the shared one
+    public V intern(K key, V candidate) {
+        return lookup(key, k -> candidate);
+    }
+
+    //makes value the shared instance for key, replacing any there is, returns the one it replaced or null
+    //holders of the replaced instance keep it, later lookups get value
+    public V put(K key, V value) {
+        if (value == null)
+            throw new IllegalArgumentException("no flyweight given for " + key);
+        if (strong != null)
+            return strong.put(key, value);
+        if (weak != null) {
+            expunge();
+            WeakValue<K, V> old = weak.put(key, new WeakValue<>(key, value, collected));
+            return old == null ? null : old.get();
+        }
+        synchronized (bounded) {
+            V old = bounded.peek(key);
+            bounded.put(key, value);
+            return old;
+        }
+    }
+
+    public int size() {
+        if (strong != null)
+            return strong.size();
+        if (weak != null) {
+            expunge();
+            return weak.size();
+        }
+        return bounded.size();
+    }
+
+    public Stats stats() {
+        long evictions = bounded != null ? bounded.stats().evictions() : collectedCount.sum();
+        long requests = this.requests.sum();
+        long misses = this.misses.sum();
+        return new Stats(requests - misses, misses, created.sum(), evictions, size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private V lookup(K key, Function<? super K, ? extends V> create) {
+        requests.increment();
+        if (strong != null) {
+            V value = strong.get(key);
+            if (value != null || create == null) {
+                if (value == null)
+                    misses.increment();
+                return value;
+            }
+            return strong.computeIfAbsent(key, k -> create(k, create));
+        }
+        if (weak != null) {
+            expunge();
+            WeakValue<K, V> ref = weak.get(key);
+            V value = ref == null ? null : ref.get();
+            if (value != null || create == null) {
+                if (value == null)
+                    misses.increment();
+                return value;
+            }
+            //the new instance is kept strongly here until it is returned, so it cannot be collected in between
+            Object[] shared = new Object[1];
+            weak.compute(key, (k, old) -> {
+                V live = old == null ? null : old.get();
+                if (live != null) {
+                    shared[0] = live;
+                    return old;
+                }
+                V fresh = create(k, create);
+                shared[0] = fresh;
+                return new WeakValue<>(k, fresh, collected);
+            });
+            return (V) shared[0];
+        }
+        synchronized (bounded) {
+            V value = bounded.get(key);
+            if (value != null || create == null) {
+                if (value == null)
+                    misses.increment();
+                return value;
+            }
+            value = create(key, create);
+            bounded.put(key, value);
+            return value;
+        }
+    }
+
+    private V create(K key, Function<? super K, ? extends V> create) {
+        misses.increment();
+        V value = create.apply(key);
+        if (value == null)
+            throw new IllegalStateException("flyweight factory returned null for " + key);
+        created.increment();
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void expunge() {
+        WeakValue<K, V> ref;
+        while ((ref = (WeakValue<K, V>) collected.poll()) != null) {
+            if (weak.remove(ref.key, ref))
+                collectedCount.increment();
+        }
+    }
+
+    //hits / misses -> lookups served from the pool / not, created -> instances the pool ever made,
+    //evictions -> instances dropped (collected in weak mode)
+    public record Stats(long hits, long misses, long created, long evictions, int size) {
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+
+        //every hit is an instance that was not allocated
+        public long bytesSaved(long bytesPerInstance) {
+            return hits * bytesPerInstance;
+        }
+    }
+
+    private static final class WeakValue<K, V> extends WeakReference<V> {
+        final K key;
+
+        WeakValue(K key, V value, ReferenceQueue<V> queue) {
+            super(value, queue);
+            this.key = key;
+        }
+    }
+}
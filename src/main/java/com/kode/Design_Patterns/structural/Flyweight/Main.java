@@ -1,5 +1,7 @@
 package com.kode.Design_Patterns.structural.Flyweight;
 
+import java.lang.ref.Reference;
+
 public class Main {
     public static void main(String[] args) {
         Tree mangoTree = TreeFactory.getTree("mango");
@@ -20,5 +22,38 @@ public class Main {
 
         FlyingBullet flyingBullet = new FlyingBullet(1,2,3,2.0,bulletRegistry.getBullets(BulletType.Nine_MM));
         FlyingBullet flyingBullet2 = new FlyingBullet(2,3,4,2.0,bulletRegistry.getBullets(BulletType.ELEVEN_MM));
+
+        //a million bullets in flight share two Bullet instances
+        FlyingBullet[] shared = new FlyingBullet[1_000_000];
+        long before = usedHeap();
+        for (int i = 0; i < shared.length; i++)
+            shared[i] = new FlyingBullet(i, i, i, 1.0, bulletRegistry.getBullets(i % 2 == 0 ? BulletType.Nine_MM : BulletType.ELEVEN_MM));
+        long sharedBytes = usedHeap() - before;
+        FlyingBullet[] unshared = new FlyingBullet[1_000_000];
+        before = usedHeap();
+        for (int i = 0; i < unshared.length; i++)
+            unshared[i] = new FlyingBullet(i, i, i, 1.0, new Bullet("img1", 2, 2, i % 2 == 0 ? BulletType.Nine_MM : BulletType.ELEVEN_MM));
+        long unsharedBytes = usedHeap() - before;
+        System.out.println("1M bullets, shared Bullet: " + sharedBytes / 1024 / 1024 + " MB, own Bullet: " + unsharedBytes / 1024 / 1024 + " MB");
+        System.out.println("bullets: " + bulletRegistry.stats());
+        Reference.reachabilityFence(shared);
+        Reference.reachabilityFence(unshared);
+
+        for (int i = 0; i < 1_000_000; i++)
+            TreeFactory.getTree(i % 3 == 0 ? "mango" : "apple");
+        System.out.println("trees: " + TreeFactory.stats());
+
+        //same bullets as columns: positions in int arrays, the Bullet type as a byte
+        FlyingBulletStore store = new FlyingBulletStore(bulletRegistry, 1024);
+        store.add(1, 2, 3, 0.0, 5, BulletType.Nine_MM);
+        store.add(2, 3, 4, Math.PI / 2, 5, BulletType.ELEVEN_MM);
+        store.tick();
+        System.out.println("bullet 0 at x=" + store.x(0) + " y=" + store.y(0) + ", bullet 1 at x=" + store.x(1) + " y=" + store.y(1));
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
     }
 }
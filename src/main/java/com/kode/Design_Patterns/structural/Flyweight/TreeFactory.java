@@ -1,15 +1,14 @@
 package com.kode.Design_Patterns.structural.Flyweight;
 
-import java.util.HashMap;
-
 public class TreeFactory {
-    static HashMap<String,Tree> cache = new HashMap<>();
+    //a tree kind nobody draws any more is collected and dropped from the cache
+    static final FlyweightPool<String,Tree> cache = FlyweightPool.weak(Tree::new);
 
     public static Tree getTree(String name){
-
-        if(!cache.containsKey(name)){
-            cache.put(name, new Tree(name));
-        }
         return cache.get(name);
     }
+
+    public static FlyweightPool.Stats stats(){
+        return cache.stats();
+    }
 }
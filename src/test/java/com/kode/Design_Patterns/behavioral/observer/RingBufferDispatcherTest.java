@@ -0,0 +1,97 @@
+package com.kode.Design_Patterns.behavioral.observer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingBufferDispatcherTest {
+    private static final int RING_SIZE = 64;
+    private static final int PRICES = 5_000;
+
+    private final RingBufferDispatcher dispatcher = new RingBufferDispatcher(RING_SIZE);
+
+    @AfterEach
+    void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void slowConsumerGetsPricesInOrderAndCountsWhatItMissed() throws InterruptedException {
+        Recorder slow = new Recorder(1);
+        Recorder fast = new Recorder(0);
+        dispatcher.addConsumer(slow);
+        dispatcher.addConsumer(fast);
+
+        for (int i = 0; i < PRICES; i++)
+            dispatcher.publish(i, i);
+        slow.awaitLast();
+        fast.awaitLast();
+
+        assertInOrder(slow.prices);
+        assertInOrder(fast.prices);
+        assertTrue(dispatcher.missed(slow) > 0, "a consumer sleeping on every price is lapped by a ring of " + RING_SIZE);
+        //every price was either delivered or counted as missed, none twice
+        assertEquals(PRICES, slow.prices.size() + dispatcher.missed(slow));
+        assertEquals(PRICES, fast.prices.size() + dispatcher.missed(fast));
+    }
+
+    @Test
+    void consumerThatKeepsUpMissesNothing() throws InterruptedException {
+        Recorder consumer = new Recorder(0);
+        dispatcher.addConsumer(consumer);
+
+        //never more than half a ring ahead of the consumer
+        for (int i = 0; i < PRICES; i++) {
+            while (i - consumer.prices.size() >= RING_SIZE / 2)
+                Thread.onSpinWait();
+            dispatcher.publish(i, i);
+        }
+        consumer.awaitLast();
+
+        assertEquals(PRICES, consumer.prices.size());
+        assertInOrder(consumer.prices);
+        assertEquals(0, dispatcher.missed(consumer));
+    }
+
+    private static void assertInOrder(List<Double> prices) {
+        for (int i = 1; i < prices.size(); i++)
+            assertTrue(prices.get(i - 1) < prices.get(i), "price " + prices.get(i) + " after " + prices.get(i - 1));
+    }
+
+    private static final class Recorder implements TickConsumer {
+        final List<Double> prices = new CopyOnWriteArrayList<>();
+        private final long sleepMillis;
+
+        Recorder(long sleepMillis) {
+            this.sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public void consume(double price, long timestamp) {
+            assertEquals((long) price, timestamp);
+            prices.add(price);
+            if (sleepMillis > 0) {
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        //the last price is never lapped, nothing is published after it
+        void awaitLast() throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (prices.isEmpty() || prices.get(prices.size() - 1) != PRICES - 1) {
+                assertTrue(System.nanoTime() < deadline, "last price not delivered");
+                Thread.sleep(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.kode.Design_Patterns.creation.factory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PaymentLedgerTest {
+    //[payloadLength:2][crc:4][sequence:8][timestamp:8][amount:8] + "CARD"
+    private static final int CARD_RECORD = 6 + 24 + 4;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recoversUpToTheLastIntactRecordAfterATornWrite() throws IOException {
+        Path file = dir.resolve("payments.log");
+        try (PaymentLedger ledger = new PaymentLedger(file, 16)) {
+            for (int i = 0; i < 10; i++)
+                ledger.append(i % 2 == 0 ? "CARD" : "UPI", 100 + i);
+        }
+        //the process died in the middle of writing the last record
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (PaymentLedger ledger = new PaymentLedger(file, 16)) {
+            assertEquals(9, ledger.size());
+            assertEquals(Map.of("CARD", 100L + 102 + 104 + 106 + 108, "UPI", 101L + 103 + 105 + 107), ledger.totals());
+            //the next payment takes the place of the torn one
+            assertEquals(9, ledger.append("WALLET", 5));
+            List<Long> sequences = new ArrayList<>();
+            ledger.forEach(entry -> sequences.add(entry.sequence()));
+            assertEquals(LongStream.range(0, 10).boxed().toList(), sequences);
+        }
+    }
+
+    @Test
+    void corruptRecordEndsTheLog() throws IOException {
+        Path file = dir.resolve("payments.log");
+        try (PaymentLedger ledger = new PaymentLedger(file, 16)) {
+            for (int i = 0; i < 8; i++)
+                ledger.append("CARD", 100);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), 4L * CARD_RECORD + 20);
+        }
+
+        try (PaymentLedger ledger = new PaymentLedger(file, 16)) {
+            assertEquals(4, ledger.size());
+            assertEquals(Map.of("CARD", 400L), ledger.totals());
+        }
+        assertEquals(4L * CARD_RECORD, Files.size(file));
+    }
+
+    @Test
+    void appendAfterCloseIsRefused() throws IOException {
+        PaymentLedger ledger = new PaymentLedger(dir.resolve("payments.log"), 16);
+        ledger.append("CARD", 100);
+        ledger.close();
+
+        assertThrows(IllegalStateException.class, () -> ledger.append("CARD", 100));
+        assertThrows(IllegalStateException.class, () -> ledger.appendAsync("CARD", 100));
+    }
+}
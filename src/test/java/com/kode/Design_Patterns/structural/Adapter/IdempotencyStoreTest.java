@@ -0,0 +1,93 @@
+package com.kode.Design_Patterns.structural.Adapter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotencyStoreTest {
+    private static final int DUPLICATES = 8;
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(DUPLICATES);
+    private final IdempotencyStore store = new IdempotencyStore(100, Duration.ofMinutes(1));
+
+    @AfterEach
+    void shutdown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentDuplicatesJoinTheFirstCall() throws InterruptedException, ExecutionException, TimeoutException {
+        AtomicInteger providerCalls = new AtomicInteger();
+        CountDownLatch arrived = new CountDownLatch(DUPLICATES);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < DUPLICATES; i++) {
+            results.add(callers.submit(() -> {
+                arrived.countDown();
+                return store.execute(42, 1_000, () -> {
+                    //the payment is still in flight while the duplicates come in
+                    await(arrived);
+                    sleep(50);
+                    return "paid " + providerCalls.incrementAndGet();
+                });
+            }));
+        }
+
+        for (Future<String> result : results)
+            assertEquals("paid 1", result.get(10, TimeUnit.SECONDS));
+        assertEquals(1, providerCalls.get());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void failedCallIsNotStoredSoARetryPaysAgain() {
+        AtomicInteger providerCalls = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> store.execute(7, 500, () -> {
+            providerCalls.incrementAndGet();
+            throw new IllegalStateException("provider down");
+        }));
+        assertEquals(0, store.size());
+        assertEquals("paid", store.execute(7, 500, () -> {
+            providerCalls.incrementAndGet();
+            return "paid";
+        }));
+        assertEquals(2, providerCalls.get());
+    }
+
+    @Test
+    void sameIdWithAnotherAmountIsRejected() {
+        store.execute(9, 100, () -> "paid");
+
+        assertThrows(IllegalArgumentException.class, () -> store.execute(9, 200, () -> "paid"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
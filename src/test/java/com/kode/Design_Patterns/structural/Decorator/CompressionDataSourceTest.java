@@ -0,0 +1,83 @@
+package com.kode.Design_Patterns.structural.Decorator;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressionDataSourceTest {
+    private static final int BLOCK_SIZE = 1000;
+
+    @Test
+    void randomRangesMatchWhatWasWritten() {
+        byte[] data = payload(20_000, 1);
+        InMemoryDataSource stored = new InMemoryDataSource();
+        CompressionDataSource source = new CompressionDataSource(stored, new LzCodec(), BLOCK_SIZE);
+        writeInChunks(source, data, 2);
+        source.flush();
+
+        assertTrue(stored.size() < data.length, "stored " + stored.size() + " bytes");
+        assertRandomRanges(source, data, 3);
+    }
+
+    @Test
+    void reopenedStreamReadsTheSameRanges() {
+        byte[] data = payload(20_000, 4);
+        InMemoryDataSource stored = new InMemoryDataSource();
+        CompressionDataSource source = new CompressionDataSource(stored, new DeflateCodec(), BLOCK_SIZE);
+        writeInChunks(source, data, 5);
+        source.flush();
+
+        CompressionDataSource reopened = new CompressionDataSource(stored, new DeflateCodec(), BLOCK_SIZE);
+        assertEquals(data.length, reopened.size());
+        assertRandomRanges(reopened, data, 6);
+    }
+
+    @Test
+    void unflushedTailIsReadable() {
+        byte[] data = payload(5_500, 7);
+        CompressionDataSource source = new CompressionDataSource(new InMemoryDataSource(), new LzCodec(), BLOCK_SIZE);
+        writeInChunks(source, data, 8);
+
+        assertEquals(data.length, source.size());
+        assertRandomRanges(source, data, 9);
+    }
+
+    //repeated text with random bytes mixed in, some blocks compress and some are stored raw
+    static byte[] payload(int length, long seed) {
+        Random random = new Random(seed);
+        byte[] text = "price 10019.0 BTC sent to email consumer; ".getBytes(StandardCharsets.UTF_8);
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++)
+            data[i] = (i / 3000) % 2 == 0 ? text[i % text.length] : (byte) random.nextInt();
+        return data;
+    }
+
+    static void writeInChunks(DataSource source, byte[] data, long seed) {
+        Random random = new Random(seed);
+        for (int offset = 0; offset < data.length; ) {
+            int n = Math.min(data.length - offset, 1 + random.nextInt(2 * BLOCK_SIZE));
+            source.write(ByteBuffer.wrap(data, offset, n));
+            offset += n;
+        }
+    }
+
+    static void assertRandomRanges(DataSource source, byte[] data, long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < 500; i++) {
+            int position = random.nextInt(data.length);
+            int length = 1 + random.nextInt(Math.min(data.length - position, 3 * BLOCK_SIZE));
+            ByteBuffer dst = ByteBuffer.allocate(length);
+            assertEquals(length, source.read(position, dst));
+            assertArrayEquals(Arrays.copyOfRange(data, position, position + length), dst.array(),
+                    "bytes " + position + ".." + (position + length));
+        }
+        assertEquals(-1, source.read(data.length, ByteBuffer.allocate(1)));
+    }
+}
@@ -0,0 +1,79 @@
+package com.kode.Design_Patterns.structural.Decorator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.kode.Design_Patterns.structural.Decorator.CompressionDataSourceTest.assertRandomRanges;
+import static com.kode.Design_Patterns.structural.Decorator.CompressionDataSourceTest.payload;
+import static com.kode.Design_Patterns.structural.Decorator.CompressionDataSourceTest.writeInChunks;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EncryptionDataSourceTest {
+    private static final int SEGMENT_SIZE = 1000;
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void randomRangesMatchWhatWasWritten() throws GeneralSecurityException {
+        byte[] data = payload(20_000, 11);
+        EncryptionDataSource source = new EncryptionDataSource(new InMemoryDataSource(), key(), SEGMENT_SIZE, pool);
+        writeInChunks(source, data, 12);
+        source.flush();
+
+        assertRandomRanges(source, data, 13);
+    }
+
+    @Test
+    void reopenedStreamReadsTheSameRanges() throws GeneralSecurityException {
+        SecretKey key = key();
+        byte[] data = payload(20_000, 14);
+        InMemoryDataSource stored = new InMemoryDataSource();
+        EncryptionDataSource source = new EncryptionDataSource(stored, key, SEGMENT_SIZE, pool);
+        writeInChunks(source, data, 15);
+        source.flush();
+
+        EncryptionDataSource reopened = new EncryptionDataSource(stored, key, SEGMENT_SIZE, pool);
+        assertEquals(data.length, reopened.size());
+        assertRandomRanges(reopened, data, 16);
+    }
+
+    @Test
+    void segmentFromAnotherStreamFailsAuthentication() throws GeneralSecurityException {
+        SecretKey key = key();
+        InMemoryDataSource first = new InMemoryDataSource();
+        InMemoryDataSource second = new InMemoryDataSource();
+        long secondSegment = 0;
+        for (InMemoryDataSource stored : new InMemoryDataSource[]{first, second}) {
+            EncryptionDataSource source = new EncryptionDataSource(stored, key, SEGMENT_SIZE, pool);
+            source.write(ByteBuffer.wrap(payload(SEGMENT_SIZE, 17)));
+            source.flush();
+            secondSegment = source.storedSize();
+            source.write(ByteBuffer.wrap(payload(SEGMENT_SIZE, 18)));
+            source.flush();
+        }
+        //same layout, the first segment of one stream followed by the second segment of the other
+        byte[] mixed = new byte[(int) first.size()];
+        first.read(0, ByteBuffer.wrap(mixed));
+        second.read(secondSegment, ByteBuffer.wrap(mixed, (int) secondSegment, mixed.length - (int) secondSegment));
+        InMemoryDataSource stored = new InMemoryDataSource();
+        stored.write(ByteBuffer.wrap(mixed));
+
+        assertThrows(IllegalStateException.class, () -> new EncryptionDataSource(stored, key, SEGMENT_SIZE, pool));
+    }
+
+    private static SecretKey key() throws GeneralSecurityException {
+        return KeyGenerator.getInstance("AES").generateKey();
+    }
+}